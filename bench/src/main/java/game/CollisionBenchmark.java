@@ -0,0 +1,77 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projectile vs black hole resolution. Each invocation re-arms the same
+ * projectiles and holes, so {@link #rearmOnly} is the baseline to subtract.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    @Param({"100", "1000", "2000"})
+    int projectiles;
+
+    @Param({"1", "16", "64"})
+    int holes;
+
+    World world;
+    int[] px, py;
+    double[] angle, hx, hy;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        world = new World(0, 42);
+        world.soundEnabled = false;
+        GameRandom rng = new GameRandom(7);
+
+        px = new int[projectiles];
+        py = new int[projectiles];
+        angle = new double[projectiles];
+        for (int i = 0; i < projectiles; i++) {
+            px[i] = rng.nextInt(World.WIDTH);
+            py[i] = rng.nextInt(World.HEIGHT);
+            angle[i] = rng.nextDouble() * Math.PI * 2;
+        }
+
+        world.blackHoles.clear();
+        hx = new double[holes];
+        hy = new double[holes];
+        for (int h = 0; h < holes; h++) {
+            hx[h] = rng.nextDouble() * World.WIDTH;
+            hy[h] = rng.nextDouble() * World.HEIGHT;
+            world.blackHoles.add(new BlackHole(hx[h], hy[h], 30));
+        }
+    }
+
+    private void rearm() {
+        ProjectilePool pool = world.projectiles;
+        pool.clear();
+        Player.GunType[] guns = Player.GunType.values();
+        for (int i = 0; i < projectiles; i++) {
+            pool.fire(px[i], py[i], angle[i], guns[i % guns.length], 1.0);
+        }
+        for (int h = 0; h < holes; h++) world.blackHoles.get(h).reset(hx[h], hy[h], 30);
+        world.particles.clear();
+    }
+
+    @Benchmark
+    public int rearmOnly() {
+        rearm();
+        return world.projectiles.size();
+    }
+
+    @Benchmark
+    public int resolve() {
+        rearm();
+        world.resolveCollisions(2, 0);
+        return world.projectiles.size();
+    }
+}
@@ -0,0 +1,55 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Particles.update over a pool kept at the given fill. Each invocation tops
+ * the pool back up with one emitter of each kind per round, so {@link #emitOnly}
+ * is the baseline to subtract.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParticlesBenchmark {
+
+    @Param({"256", "4096"})
+    int live;
+
+    Particles particles;
+    long round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        particles = new Particles(World.MAX_RINGS, World.MAX_EFFECTS, 42);
+        refill();
+    }
+
+    // rings that never finish growing, plus sparks and motes, until there are live particles
+    private void refill() {
+        while (particles.size() < live) {
+            double x = (round * 97) % World.WIDTH, y = (round * 61) % World.HEIGHT;
+            particles.ringBurst(x, y, 5000);
+            particles.shrapnel(x, y, round);
+            particles.swirl(x, y, 30);
+            round++;
+        }
+    }
+
+    @Benchmark
+    public int emitOnly() {
+        refill();
+        return particles.size();
+    }
+
+    @Benchmark
+    public int update() {
+        refill();
+        particles.update();
+        return particles.size();
+    }
+}
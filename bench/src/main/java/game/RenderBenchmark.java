@@ -0,0 +1,144 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draw calls into an offscreen 1200x800 image, from a synthetic snapshot with
+ * the given entity counts. Software Java2D, so this tracks the slowest pipeline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+    private static final Player.GunType[] GUNS = Player.GunType.values();
+
+    @Param({"50", "5000"})
+    int stars;
+
+    @Param({"10", "200"})
+    int projectiles;
+
+    @Param({"1", "8"})
+    int holes;
+
+    @Param({"1", "20"})
+    int rings;
+
+    RenderSnapshot snap;
+    BufferedImage image;
+    Graphics2D g2;
+    Renderer renderer;
+    final GameRandom jitter = new GameRandom(3);
+    final LensingPass lens = new LensingPass();
+    int[] pixels;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameRandom rng = new GameRandom(42);
+        snap = new RenderSnapshot();
+        snap.tick = 1;
+        snap.playerX = World.WIDTH / 2;
+        snap.playerY = World.HEIGHT / 2;
+        snap.playerRadius = 40;
+        snap.playerOffset = 1.0;
+
+        snap.ensureStars(stars);
+        for (int i = 0; i < stars; i++) {
+            snap.starX[i] = rng.nextDouble() * World.WIDTH;
+            snap.starY[i] = rng.nextDouble() * World.HEIGHT;
+            snap.starSize[i] = (float)(1 + (rng.nextDouble() + .2) * 2);
+            snap.starPalette[i] = (byte) rng.nextInt(StarField.CORE.length);
+        }
+        snap.starCount = stars;
+
+        snap.ensureProjectiles(projectiles);
+        for (int i = 0; i < projectiles; i++) {
+            snap.projX[i] = rng.nextInt(World.WIDTH);
+            snap.projY[i] = rng.nextInt(World.HEIGHT);
+            snap.projAngle[i] = rng.nextDouble() * Math.PI * 2;
+            snap.projOffset[i] = 0.1 + rng.nextDouble() * 2.9;
+            snap.projGun[i] = (byte)(i % GUNS.length);
+        }
+        snap.projCount = projectiles;
+
+        snap.ensureHoles(holes);
+        for (int i = 0; i < holes; i++) {
+            snap.holeX[i] = rng.nextDouble() * World.WIDTH;
+            snap.holeY[i] = rng.nextDouble() * World.HEIGHT;
+            snap.holeR[i] = 20 + rng.nextDouble() * 40;
+            snap.holeFlashAlpha[i] = 120;
+            snap.holeFlashTimer[i] = 5;
+            snap.holeGlowAlpha[i] = 60;
+        }
+        snap.holeCount = holes;
+
+        snap.ensureParticles(rings);
+        for (int i = 0; i < rings; i++) {
+            snap.partKind[i] = Particles.RING;
+            snap.partX[i] = snap.partPrevX[i] = rng.nextDouble() * World.WIDTH;
+            snap.partY[i] = snap.partPrevY[i] = rng.nextDouble() * World.HEIGHT;
+            snap.partSize[i] = snap.partPrevSize[i] = (float)(10 + rng.nextDouble() * 50);
+            snap.partAlpha[i] = 200;
+        }
+        snap.partCount = rings;
+
+        image = new BufferedImage(World.WIDTH, World.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2 = image.createGraphics();
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        renderer = new Renderer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2.dispose();
+    }
+
+    @Benchmark
+    public void frame() {
+        renderer.draw(g2, snap);
+    }
+
+    @Benchmark
+    public void stars() {
+        for (int i = 0; i < snap.starCount; i++) {
+            StarField.draw(g2, snap.starX[i], snap.starY[i], snap.starSize[i], snap.starPalette[i]);
+        }
+    }
+
+    @Benchmark
+    public void lensing() {
+        for (int h = 0; h < snap.holeCount; h++) {
+            lens.apply(pixels, World.WIDTH, World.HEIGHT, snap.holeX[h], snap.holeY[h], snap.holeR[h]);
+        }
+    }
+
+    @Benchmark
+    public void projectiles() {
+        for (int i = 0; i < snap.projCount; i++) {
+            Projectile.draw(g2, snap.projX[i], snap.projY[i], snap.projAngle[i], snap.projOffset[i], GUNS[snap.projGun[i]]);
+        }
+    }
+
+    @Benchmark
+    public void holes() {
+        for (int i = 0; i < snap.holeCount; i++) {
+            BlackHole.draw(g2, snap.holeX[i], snap.holeY[i], snap.holeR[i],
+                           snap.holeFlashAlpha[i], snap.holeFlashTimer[i], snap.holeGlowAlpha[i]);
+        }
+    }
+
+    @Benchmark
+    public void rings() {
+        for (int i = 0; i < snap.partCount; i++) {
+            Particles.drawRing(g2, snap.partX[i], snap.partY[i], snap.partSize[i], snap.partAlpha[i], jitter);
+        }
+    }
+}
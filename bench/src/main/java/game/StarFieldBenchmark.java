@@ -0,0 +1,58 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** Star parallax and gravity passes at various field sizes and hole counts. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StarFieldBenchmark {
+
+    @Param({"1000", "50000", "200000"})
+    int stars;
+
+    @Param({"1", "16"})
+    int holes;
+
+    StarField field;
+    final ArrayList<BlackHole> blackHoles = new ArrayList<>();
+    final Particles particles = new Particles(World.MAX_RINGS, World.MAX_EFFECTS, 1);
+    long tick;
+
+    // Fresh field every iteration: captures grow the holes, and a field that has
+    // been swallowed whole measures nothing useful.
+    @Setup(Level.Iteration)
+    public void setUp() {
+        GameRandom rng = new GameRandom(42);
+        field = new StarField(World.WIDTH, World.HEIGHT, stars, rng.split());
+        for (int i = 0; i < stars; i++) field.add(rng.nextDouble() + .2);
+        blackHoles.clear();
+        for (int h = 0; h < holes; h++) {
+            blackHoles.add(new BlackHole(rng.nextDouble() * World.WIDTH, rng.nextDouble() * World.HEIGHT, 30));
+        }
+        particles.clear();
+    }
+
+    @Benchmark
+    public void parallax() {
+        field.update(World.WIDTH, World.HEIGHT, 2, 0, (int)(tick++ % 360));
+    }
+
+    @Benchmark
+    public void gravity() {
+        field.updateWithBlackHoles(blackHoles, particles, tick++);
+        particles.clear();
+    }
+
+    @Benchmark
+    public void gravityBruteForce() {
+        field.updateWithBlackHolesBruteForce(blackHoles, particles, tick++);
+        particles.clear();
+    }
+}
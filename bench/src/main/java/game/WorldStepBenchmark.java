@@ -0,0 +1,36 @@
+package game;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** A whole simulation tick driven by the HeadlessSim input script. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldStepBenchmark {
+
+    @Param({"50", "5000", "50000"})
+    int stars;
+
+    World world;
+    final InputState input = new InputState();
+    long tick;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = new World(stars, 42);
+        world.soundEnabled = false;
+        tick = 0;
+    }
+
+    @Benchmark
+    public long step() {
+        HeadlessSim.script(tick++, input);
+        world.step(input);
+        return world.tick;
+    }
+}
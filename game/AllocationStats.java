@@ -0,0 +1,128 @@
+package game;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated per phase of a repeating unit of work, read from the
+ * current thread's allocation counter ({@code com.sun.management.ThreadMXBean}).
+ * Same begin / lap / end shape as {@link FrameStats}, but off unless
+ * {@link #enabled} is set, since the counter read is not free. Every
+ * {@link FrameStats#WINDOW} units the average and max per phase are latched
+ * and, with {@link #log} set, printed.
+ *
+ * Only the calling thread is counted: work farmed out to other threads (the
+ * parallel star update) does not show up here.
+ */
+public class AllocationStats {
+    public static final int AVG = 0, MAX = 1;
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    volatile boolean enabled;        // set from any thread, picked up at the next begin()
+    boolean log = true;
+
+    private final String unit;       // "tick", "paint"; used in the log line
+    private final String[] names;    // phases, then "total"
+    private final int total;
+    private final long[] current, sum, max;
+    private final long[] summary;    // [row * 2 + AVG/MAX], bytes
+    private final StringBuilder line = new StringBuilder(160);
+    private boolean active;          // enabled as of this unit's begin()
+    private int samples;
+    private long unitStart;
+
+    public AllocationStats(String unit, String... phases) {
+        this.unit = unit;
+        total = phases.length;
+        names = new String[total + 1];
+        System.arraycopy(phases, 0, names, 0, total);
+        names[total] = "total";
+        current = new long[total];
+        sum = new long[total + 1];
+        max = new long[total + 1];
+        summary = new long[(total + 1) * 2];
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) return null;
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    /** False on JVMs without per-thread allocation counters; the stats then stay at 0. */
+    public static boolean supported() { return THREADS != null; }
+
+    public int rows() { return names.length; }
+    public String name(int row) { return names[row]; }
+    public int totalRow() { return total; }
+
+    public long begin() {
+        active = enabled && THREADS != null;
+        if (!active) return 0;
+        for (int p = 0; p < total; p++) current[p] = 0;
+        unitStart = THREADS.getCurrentThreadAllocatedBytes();
+        return unitStart;
+    }
+
+    public long lap(int phase, long since) {
+        if (!active) return 0;
+        long now = THREADS.getCurrentThreadAllocatedBytes();
+        current[phase] += now - since;
+        return now;
+    }
+
+    public long skip(long since) {
+        if (!active) return 0;
+        long now = THREADS.getCurrentThreadAllocatedBytes();
+        unitStart += now - since;
+        return now;
+    }
+
+    public void end() {
+        if (!active) return;
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - unitStart;
+        for (int p = 0; p < total; p++) record(p, current[p]);
+        record(total, bytes);
+        if (++samples == FrameStats.WINDOW) latch();
+    }
+
+    private void record(int row, long bytes) {
+        sum[row] += bytes;
+        if (bytes > max[row]) max[row] = bytes;
+    }
+
+    private void latch() {
+        for (int row = 0; row < names.length; row++) {
+            summary[row * 2 + AVG] = sum[row] / samples;
+            summary[row * 2 + MAX] = max[row];
+            sum[row] = 0;
+            max[row] = 0;
+        }
+        samples = 0;
+        if (log) System.out.println(summaryLine());
+    }
+
+    /** The latched summary as "alloc/tick avg/max: player 0/0 B, ..., total 0/0 B". */
+    String summaryLine() {
+        line.setLength(0);
+        line.append("alloc/").append(unit).append(" avg/max:");
+        for (int row = 0; row < names.length; row++) {
+            line.append(row == 0 ? " " : ", ").append(names[row]).append(' ')
+                .append(summary[row * 2 + AVG]).append('/').append(summary[row * 2 + MAX]).append(" B");
+        }
+        return line.toString();
+    }
+
+    /** Latched bytes for {@code row} and AVG/MAX; 0 until the first window fills. */
+    public long get(int row, int which) {
+        return summary[row * 2 + which];
+    }
+
+    /** Copy the latched summary into {@code dst} (length {@code rows() * 2}). */
+    public void copySummary(long[] dst) {
+        System.arraycopy(summary, 0, dst, 0, summary.length);
+    }
+}
@@ -1,11 +1,14 @@
 package game;
 
 import java.awt.*;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 import java.awt.RadialGradientPaint;
+import java.awt.image.BufferedImage;
 
 public class BlackHole {
     private double x, y, radius;
+    private double prevX, prevY, prevRadius;   // at the start of the tick
     private double vx = .5, vy = .23; // drift speed
     private int slowTimer = 0;
     private double slowFactor = 1.0; // 1.0 = no slow
@@ -45,8 +48,23 @@ public class BlackHole {
 
     public BlackHole(double x, double y, double radius) {
         this.x = x; this.y = y; this.radius = radius;
+        savePrevious();
     }
 
+    // Put the hole back to a fresh state (benchmarks reuse holes between runs)
+    void reset(double x, double y, double radius) {
+        this.x = x; this.y = y; this.radius = radius;
+        vx = .5; vy = .23;
+        slowTimer = 0; slowFactor = 1.0;
+        flashAlpha = 0; flashTimer = 0; flashCooldown = 0;
+        savePrevious();
+    }
+
+    void savePrevious() { prevX = x; prevY = y; prevRadius = radius; }
+    public double getPrevX() { return prevX; }
+    public double getPrevY() { return prevY; }
+    public double getPrevRadius() { return prevRadius; }
+
     public void setAmbientGlowAlpha(int a) {
         ambientGlowAlpha = Math.max(0, Math.min(255, a));
     }
@@ -82,94 +100,167 @@ public class BlackHole {
     }
 
 
-    public void draw(Graphics2D g2) {
-        // save state
-        Object oldAA = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
-        Paint oldPaint = g2.getPaint();
-        Stroke oldStroke = g2.getStroke();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    public int getFlashAlpha() { return flashAlpha; }
+    public int getFlashTimer() { return flashTimer; }
+    public int getAmbientGlowAlpha() { return ambientGlowAlpha; }
 
-        float rCore  = (float) radius;
-        Point2D center = new Point2D.Float((float) x, (float) y);
+    // Layer sprites by radius bucket; render thread only. Each layer is rendered
+    // at full strength for the bucket's radius, then blitted scaled to the exact
+    // radius with the frame's alpha as a composite. Buckets are half a pixel up
+    // to 64 px, then 1% of the radius, so the scale is always within 1%.
+    // Layers that would need a sprite over MAX_SPRITE px square are filled straight
+    // onto the target instead, so a huge hole costs what its on-screen part covers.
+    private static final SpriteCache SPRITES = new SpriteCache(16L << 20, 384);
+    private static final int MAX_SPRITE = 512;
+    private static final int GLOW = 0, CORE = 1, RIM = 2, BLOOM = 3;
+    private static final double LOG_STEP = Math.log(1.01);
+    private static final Color GLOW_INNER = new Color(90, 0, 140, 160);   // alphas at ambientGlowAlpha >= 160
+    private static final Color GLOW_MID = new Color(30, 0, 60, 80);
+    private static final Color CLEAR = new Color(0, 0, 0, 0);
+    private static final Color RIM_COLOR = new Color(255, 220, 150);
+    private static final Color BLOOM_COLOR = new Color(255, 255, 200);
+    private static final BasicStroke RIM_STROKE = new BasicStroke(3);
+
+    static int radiusBucket(double r) {
+        return r <= 64 ? Math.max(1, (int)Math.round(r * 2)) : 128 + (int)Math.round(Math.log(r / 64) / LOG_STEP);
+    }
+
+    static double bucketRadius(int b) {
+        return b <= 128 ? b / 2.0 : 64 * Math.exp((b - 128) * LOG_STEP);
+    }
+
+    // Draws a hole from its render-snapshot fields (see RenderSnapshot)
+    public static void draw(Graphics2D g2, double x, double y, double radius,
+                            int flashAlpha, int flashTimer, int ambientGlowAlpha) {
+        Composite oldComp = g2.getComposite();
+        int bucket = radiusBucket(radius);
+        double scale = radius / bucketRadius(bucket);
 
         // --- AMBIENT GLOW (off if ambientGlowAlpha == 0) ---
+        // the gradient's alphas are min(160, a) and min(80, a / 2): the a = 160 sprite, faded
         if (ambientGlowAlpha > 0) {
-            float rGlow  = rCore * 1.6f;
-            try {
-                RadialGradientPaint glow = new RadialGradientPaint(
-                    center, rGlow,
-                    new float[] { 0f, 0.7f, 1f },
-                    new Color[] {
-                        new Color(90,  0, 140, Math.min(160, ambientGlowAlpha)),
-                        new Color(30,  0,  60, Math.min(80,  ambientGlowAlpha / 2)),
-                        new Color(0,   0,   0, 0)
-                    }
-                );
-                g2.setPaint(glow);
-                int gx = Math.round((float)(x - rGlow));
-                int gy = Math.round((float)(y - rGlow));
-                int gd = Math.round(rGlow * 2);
-                g2.fillOval(gx, gy, gd, gd);
-            } catch (Throwable t) {
-                g2.setColor(new Color(90, 0, 140, Math.min(80, ambientGlowAlpha)));
-                g2.setStroke(new BasicStroke(Math.max(2f, rCore * 0.08f)));
-                g2.drawOval((int)(x - radius * 1.4), (int)(y - radius * 1.4),
-                            (int)(radius * 2.8), (int)(radius * 2.8));
-            }
+            g2.setComposite(SpriteCache.alpha(Math.min(160, ambientGlowAlpha) * 255 / 160));
+            blit(g2, GLOW, bucket, x, y, radius, scale);
         }
 
         // --- CORE: solid black disk (default state) ---
-        g2.setPaint(oldPaint);
-        g2.setColor(Color.BLACK);
-        g2.fillOval(
-            (int)Math.round(x - rCore),
-            (int)Math.round(y - rCore),
-            (int)Math.round(rCore * 2),
-            (int)Math.round(rCore * 2)
-        );
+        g2.setComposite(oldComp);
+        blit(g2, CORE, bucket, x, y, radius, scale);
 
         // --- RIM PULSE during flash (brief outline) ---
         if (flashTimer > 0) {
             int alpha = 60 + (int)(120 * (flashTimer / 10.0)); // fades to 60
-            g2.setColor(new Color(255, 220, 150, alpha));
-            g2.setStroke(new BasicStroke(3));
-            float rimR = rCore * 1.1f;
-            g2.drawOval(
-                (int)Math.round(x - rimR),
-                (int)Math.round(y - rimR),
-                (int)Math.round(rimR * 2),
-                (int)Math.round(rimR * 2)
-            );
+            g2.setComposite(SpriteCache.alpha(alpha));
+            blit(g2, RIM, bucket, x, y, radius, scale);
         }
 
         // --- SOFT BLOOM over core while flashing (brief fill) ---
         if (flashAlpha > 0) {
-            g2.setColor(new Color(255, 255, 200, flashAlpha));
-            g2.fillOval((int)(x - radius), (int)(y - radius),
-                        (int)(radius * 2), (int)(radius * 2));
+            g2.setComposite(SpriteCache.alpha(flashAlpha));
+            blit(g2, BLOOM, bucket, x, y, radius, scale);
+        }
+
+        g2.setComposite(oldComp);
+    }
+
+    private static void blit(Graphics2D g2, int layer, int bucket, double x, double y, double radius, double scale) {
+        if (spriteSize(layer, bucketRadius(bucket)) > MAX_SPRITE) {
+            paintDirect(g2, layer, x, y, radius);
+            return;
         }
+        int key = layer << 24 | bucket;
+        BufferedImage img = SPRITES.get(key);
+        if (img == null) SPRITES.put(key, img = renderLayer(layer, bucketRadius(bucket)));
+        double half = img.getWidth() / 2.0 * scale;
+        int x1 = (int)Math.round(x - half), y1 = (int)Math.round(y - half);
+        int x2 = (int)Math.round(x + half), y2 = (int)Math.round(y + half);
+        g2.drawImage(img, x1, y1, x2, y2, 0, 0, img.getWidth(), img.getHeight(), null);
+    }
 
-        // restore state
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, oldAA);
-        g2.setPaint(oldPaint);
-        g2.setStroke(oldStroke);
+    // side of the square sprite holding one layer of a hole of radius r
+    private static int spriteSize(int layer, double r) {
+        float rCore = (float) r;
+        float extent = layer == GLOW ? rCore * 1.6f : (layer == RIM ? rCore * 1.1f + 2 : rCore);
+        return 2 * (int)Math.ceil(extent) + 4;
+    }
+
+    // one layer for a hole of radius r, centred in a square ARGB image
+    private static BufferedImage renderLayer(int layer, double r) {
+        int size = spriteSize(layer, r);
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        paintLayer(g, layer, r, size / 2f, size / 2f);
+        g.dispose();
+        return img;
+    }
+
+    // one layer at its exact radius straight onto g2, which keeps its composite;
+    // the target's clip bounds the fill
+    private static void paintDirect(Graphics2D g2, int layer, double x, double y, double r) {
+        Paint paint = g2.getPaint();
+        Stroke stroke = g2.getStroke();
+        Object aa = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        paintLayer(g2, layer, r, (float) x, (float) y);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, aa);
+        g2.setStroke(stroke);
+        g2.setPaint(paint);
+    }
+
+    private static void paintLayer(Graphics2D g, int layer, double r, float cx, float cy) {
+        float rCore = (float) r;
+        switch (layer) {
+            case GLOW: {
+                float rGlow = rCore * 1.6f;
+                g.setPaint(new RadialGradientPaint(
+                    new Point2D.Float(cx, cy), rGlow,
+                    new float[] { 0f, 0.7f, 1f },
+                    new Color[] { GLOW_INNER, GLOW_MID, CLEAR }
+                ));
+                g.fill(new Ellipse2D.Float(cx - rGlow, cy - rGlow, rGlow * 2, rGlow * 2));
+                break;
+            }
+            case CORE:
+                g.setColor(Color.BLACK);
+                g.fill(new Ellipse2D.Float(cx - rCore, cy - rCore, rCore * 2, rCore * 2));
+                break;
+            case RIM: {
+                float rimR = rCore * 1.1f;
+                g.setColor(RIM_COLOR);
+                g.setStroke(RIM_STROKE);
+                g.draw(new Ellipse2D.Float(cx - rimR, cy - rimR, rimR * 2, rimR * 2));
+                break;
+            }
+            case BLOOM:
+                g.setColor(BLOOM_COLOR);
+                g.fill(new Ellipse2D.Float(cx - rCore, cy - rCore, rCore * 2, rCore * 2));
+                break;
+        }
     }
 
     public void applyLensingOffset(double sx, double sy, double[] outXY) {
+        applyLensingOffset(x, y, radius, sx, sy, outXY);
+    }
+
+    public static void applyLensingOffset(double x, double y, double radius,
+                                          double sx, double sy, double[] outXY) {
         double dx = sx - x, dy = sy - y;
         double d2 = dx*dx + dy*dy;
         if (d2 <= 1e-6) { outXY[0]=sx; outXY[1]=sy; return; }
 
         double d = Math.sqrt(d2);
-        double influence = Math.max(0, (radius * 2 - d) / (radius * 2)); // 0..1 inside ~2R
-        double bend = 0.005 * radius * influence * influence;            // tweak strength
+        double bend = bend(radius, d);
 
         // tangent vector (perpendicular to radial)
         double tx = -dy / d, ty = dx / d;
         outXY[0] = sx + tx * bend * d;
         outXY[1] = sy + ty * bend * d;
     }
-  
 
-  
+    // tangential shift per unit distance d from a hole (LensingPass inverts this)
+    static double bend(double radius, double d) {
+        double influence = Math.max(0, (radius * 2 - d) / (radius * 2)); // 0..1 inside ~2R
+        return 0.005 * radius * influence * influence;                  // tweak strength
+    }
 }
@@ -0,0 +1,132 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Per-phase timing for a repeating unit of work (a simulation tick, a paint).
+ * Each phase records into a fixed-size histogram of 50 us buckets; every
+ * {@link #WINDOW} samples the p50/p99/max of each phase and of the whole unit
+ * are latched into a summary and the histograms start over. Allocation free
+ * after construction, single-threaded (one instance per thread).
+ *
+ * Usage: {@code long t = stats.begin(); work(); t = stats.lap(PHASE, t); ... stats.end();}
+ * Laps on the same phase within one unit add up. With an {@link AllocationStats}
+ * attached, the same laps also charge allocated bytes to each phase.
+ */
+public class FrameStats {
+    static final int WINDOW = 120;                  // samples per summary, 2 s at 60 Hz
+    private static final long BUCKET_NS = 50_000;   // 50 us
+    private static final int BUCKETS = 1024;        // 0 .. 51.2 ms, last bucket is overflow
+
+    public static final int P50 = 0, P99 = 1, MAX = 2;
+
+    private final String[] names;                   // phases, then "total"
+    private final int total;                        // index of the total row
+    private final int[][] hist;
+    private final long[] max;
+    private final long[] current;                   // this unit's time per phase
+    private final long[] summary;                   // [row * 3 + P50/P99/MAX], ns
+    private int samples;
+    private long unitStart;
+
+    private final AllocationStats alloc;            // null if not tracking allocations
+    private long allocMark;
+
+    public FrameStats(String... phases) {
+        this(null, phases);
+    }
+
+    public FrameStats(AllocationStats alloc, String... phases) {
+        this.alloc = alloc;
+        total = phases.length;
+        names = new String[total + 1];
+        System.arraycopy(phases, 0, names, 0, total);
+        names[total] = "total";
+        hist = new int[total + 1][BUCKETS];
+        max = new long[total + 1];
+        current = new long[total];
+        summary = new long[(total + 1) * 3];
+    }
+
+    /** Number of rows in the summary: every phase plus the total. */
+    public int rows() { return names.length; }
+    public String name(int row) { return names[row]; }
+    public int totalRow() { return total; }
+
+    /** Start a unit; returns the timestamp to pass to the first {@link #lap}. */
+    public long begin() {
+        for (int p = 0; p < total; p++) current[p] = 0;
+        if (alloc != null) allocMark = alloc.begin();
+        unitStart = System.nanoTime();
+        return unitStart;
+    }
+
+    /** Charge the time since {@code since} to {@code phase}; returns now. */
+    public long lap(int phase, long since) {
+        long now = System.nanoTime();
+        current[phase] += now - since;
+        if (alloc != null) allocMark = alloc.lap(phase, allocMark);
+        return now;
+    }
+
+    /** Leave the work since {@code since} out of the unit, total included; returns now. */
+    public long skip(long since) {
+        long now = System.nanoTime();
+        unitStart += now - since;
+        if (alloc != null) allocMark = alloc.skip(allocMark);
+        return now;
+    }
+
+    /** Finish the unit started by {@link #begin}. */
+    public void end() {
+        for (int p = 0; p < total; p++) record(p, current[p]);
+        record(total, System.nanoTime() - unitStart);
+        if (++samples == WINDOW) latch();
+        if (alloc != null) alloc.end();
+    }
+
+    /** Record a whole unit measured elsewhere (only meaningful with no phases). */
+    public void sample(long ns) {
+        record(total, ns);
+        if (++samples == WINDOW) latch();
+    }
+
+    private void record(int row, long ns) {
+        int b = (int)Math.min(BUCKETS - 1, ns / BUCKET_NS);
+        hist[row][b]++;
+        if (ns > max[row]) max[row] = ns;
+    }
+
+    private void latch() {
+        for (int row = 0; row < names.length; row++) {
+            int[] h = hist[row];
+            summary[row * 3 + P50] = Math.min(max[row], percentile(h, samples / 2));
+            summary[row * 3 + P99] = Math.min(max[row], percentile(h, samples - samples / 100));
+            summary[row * 3 + MAX] = max[row];
+            Arrays.fill(h, 0);
+            max[row] = 0;
+        }
+        samples = 0;
+    }
+
+    // upper edge of the bucket holding the rank-th sample (1-based); the overflow
+    // bucket has no edge, so the caller's clamp to max applies
+    private static long percentile(int[] h, int rank) {
+        int seen = 0;
+        for (int b = 0; b < BUCKETS - 1; b++) {
+            seen += h[b];
+            if (seen >= rank) return (b + 1) * BUCKET_NS;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /** Latched value for {@code row} and P50/P99/MAX, in ns; 0 until the first window fills. */
+    public long get(int row, int which) {
+        return summary[row * 3 + which];
+    }
+
+    /** Copy the latched summary into {@code dst} (length {@code rows() * 3}). */
+    public void copySummary(long[] dst) {
+        System.arraycopy(summary, 0, dst, 0, summary.length);
+    }
+}
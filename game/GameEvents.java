@@ -0,0 +1,102 @@
+package game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for offline analysis of play sessions. Record with
+ * {@code java -XX:StartFlightRecording=filename=game.jfr ... game.Main} and open
+ * the file in JDK Mission Control, or dump it with {@code jfr print --categories WaveShooter}.
+ *
+ * Call sites create the event, then fill and commit it only when
+ * {@code shouldCommit()} / {@code isEnabled()} says so. With no recording
+ * running that check is a constant false and the JIT drops the allocation,
+ * so the events stay compiled in.
+ */
+final class GameEvents {
+    private GameEvents() {}
+
+    @Name("game.Tick")
+    @Label("Simulation Tick")
+    @Category({"WaveShooter", "Simulation"})
+    @Description("One World.step with the entity counts it finished with")
+    @StackTrace(false)
+    static final class Tick extends Event {
+        @Label("Tick") long tick;
+        @Label("Stars") int stars;
+        @Label("Projectiles") int projectiles;
+        @Label("Black Holes") int holes;
+        @Label("Particles") int particles;
+    }
+
+    @Name("game.Collisions")
+    @Label("Collision Pass")
+    @Category({"WaveShooter", "Simulation"})
+    @Description("Projectile vs black hole resolution for one tick")
+    @StackTrace(false)
+    static final class Collisions extends Event {
+        @Label("Gun") String gun;
+        @Label("Projectiles Tested") int projectiles;
+        @Label("Broadphase Candidates") int candidates;
+        @Label("Hits") int hits;
+        @Label("Shards Spawned") int shards;
+        @Label("Particles Emitted") long particles;
+        @Label("Projectiles Killed") int killed;
+    }
+
+    @Name("game.Fire")
+    @Label("Gun Fired")
+    @Category({"WaveShooter", "Simulation"})
+    @Description("A shot leaving the gun, including the sound trigger")
+    @StackTrace(false)
+    static final class Fire extends Event {
+        @Label("Gun") String gun;
+        @Label("Offset") double offset;
+        @Label("Pool Full") boolean dropped;
+        @Label("Live Projectiles") int projectiles;
+        @Label("Sound Time") @Timespan(Timespan.NANOSECONDS) long soundNanos;
+    }
+
+    @Name("game.GunSound")
+    @Label("Gun Sound")
+    @Category({"WaveShooter", "Audio"})
+    @Description("MIDI note triggered by a shot, timed over the synth calls")
+    @StackTrace(false)
+    static final class GunSound extends Event {
+        @Label("Instrument") int instrument;
+        @Label("Pitch") int pitch;
+        @Label("Velocity") int velocity;
+        @Label("Pan") int pan;
+        @Label("Brightness") int brightness;
+    }
+
+    @Name("game.ParticlesEmitted")
+    @Label("Particles Emitted")
+    @Category({"WaveShooter", "Effects"})
+    @Description("One emitter firing into the Particles pool")
+    @StackTrace(false)
+    static final class Emitted extends Event {
+        static final String RING_BURST = "ring burst", SHRAPNEL = "shrapnel", SWIRL = "swirl";
+
+        @Label("Emitter") String emitter;
+        @Label("X") double x;
+        @Label("Y") double y;
+        @Label("Particles") int count;
+    }
+
+    @Name("game.QualityChanged")
+    @Label("Quality Changed")
+    @Category({"WaveShooter", "Rendering"})
+    @Description("The QualityGovernor stepped render quality down or up")
+    @StackTrace(false)
+    static final class QualityChanged extends Event {
+        @Label("From Level") int from;
+        @Label("To Level") int to;
+        @Label("Windows Before Next Step Up") int upAfter;
+    }
+}
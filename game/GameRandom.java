@@ -0,0 +1,52 @@
+package game;
+
+/**
+ * Small seeded generator (SplitMix64) owned by the world. Every random decision in
+ * the simulation draws from one of these, so a run is fully determined by its seed
+ * and input. {@link #split()} derives an independent stream for a subsystem, and
+ * {@link #reseed(long)} lets a worker thread jump to a stream keyed by
+ * (tick, index) so parallel passes give the same numbers as sequential ones.
+ */
+public final class GameRandom {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private long state;
+
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    public void reseed(long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        return mix(state += GOLDEN);
+    }
+
+    /** Uniform in [0, 1), like Math.random(). */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /** Uniform in [0, bound). */
+    public int nextInt(int bound) {
+        return (int)(nextDouble() * bound);
+    }
+
+    /** A new generator whose stream does not overlap this one's in practice. */
+    public GameRandom split() {
+        return new GameRandom(nextLong());
+    }
+
+    /** Seed for the stream keyed by (base, a, b), e.g. (field seed, tick, star index). */
+    public static long streamSeed(long base, long a, long b) {
+        return mix(mix(base + a * GOLDEN) + b);
+    }
+
+    // SplitMix64 finaliser
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,114 @@
+package game;
+
+import java.io.IOException;
+
+/**
+ * Runs the {@link World} without a window, as fast as it will go, from a scripted
+ * input pattern. Used for balance sweeps and perf regression runs on machines with
+ * no display.
+ *
+ * Usage: java -Djava.awt.headless=true game.HeadlessSim [ticks] [stars] [options]
+ *
+ * --seed N          world seed (default 1)
+ * --record FILE     save the scripted input so it can be replayed
+ * --replay FILE     drive the world from a recording instead of the script;
+ *                   seed, star count and tick count come from the file
+ * --verify-culling  dry-runs the brute-force star gravity path against the
+ *                   culled one before every tick and reports any difference
+ * --alloc-stats     reports bytes allocated per tick by phase with each
+ *                   progress line (see AllocationStats)
+ *
+ * Prints a checksum of the final world state; the same seed and input always
+ * give the same checksum.
+ */
+public class HeadlessSim {
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        long ticks = 100_000;
+        int starCount = 50;
+        long seed = 1;
+        String recordPath = null, replayPath = null;
+        boolean verifyCulling = false, allocStats = false;
+        int positional = 0;
+        for (int a = 0; a < args.length; a++) {
+            String arg = args[a];
+            if (arg.equals("--verify-culling")) verifyCulling = true;
+            else if (arg.equals("--alloc-stats")) allocStats = true;
+            else if (arg.equals("--seed")) seed = Long.parseLong(args[++a]);
+            else if (arg.equals("--record")) recordPath = args[++a];
+            else if (arg.equals("--replay")) replayPath = args[++a];
+            else if (positional++ == 0) ticks = Long.parseLong(arg);
+            else starCount = Integer.parseInt(arg);
+        }
+
+        InputReplay replay = null;
+        if (replayPath != null) {
+            replay = new InputReplay(replayPath);
+            seed = replay.seed();
+            starCount = replay.starCount();
+            ticks = replay.ticks();
+        }
+        InputRecorder recorder = recordPath != null ? new InputRecorder(seed, starCount) : null;
+
+        World world = new World(starCount, seed);
+        world.soundEnabled = false;
+        world.tickAlloc.enabled = allocStats;
+        world.tickAlloc.log = false;   // printed with the progress line instead
+        InputState in = new InputState();
+
+        long start = System.nanoTime();
+        long reportAt = start + 1_000_000_000L;
+        long ticksAtReport = 0;
+        long mismatches = 0;
+        for (long t = 0; t < ticks; t++) {
+            if (replay != null) replay.next(in);
+            else script(t, in);
+            if (recorder != null) recorder.record(in);
+            if (verifyCulling) mismatches += world.stars.verifyCulling(world.blackHoles);
+            world.step(in);
+
+            long now = System.nanoTime();
+            if (now >= reportAt) {
+                double tps = (t + 1 - ticksAtReport) * 1e9 / (now - reportAt + 1_000_000_000L);
+                System.out.printf("tick %d: %.0f ticks/s, %d projectiles, %d particles%n",
+                        t + 1, tps, world.projectiles.size(), world.particles.size());
+                if (allocStats) System.out.println(world.tickAlloc.summaryLine());
+                ticksAtReport = t + 1;
+                reportAt = now + 1_000_000_000L;
+            }
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ticks in %.2f s = %.0f ticks/s (%d stars)%n",
+                ticks, secs, ticks / secs, starCount);
+        System.out.printf("seed %d, checksum %016x%n", seed, world.checksum());
+        if (replay != null) replay.close();
+        if (recorder != null) recorder.save(recordPath);
+        if (verifyCulling) {
+            System.out.println(mismatches == 0
+                    ? "culled star gravity matches brute force"
+                    : "culled star gravity MISMATCH on " + mismatches + " star-ticks");
+            if (mismatches != 0) System.exit(1);
+        }
+    }
+
+    /**
+     * Deterministic stand-in for a player: circles the arena, sweeps the aim,
+     * holds fire and cycles guns every few seconds.
+     */
+    static void script(long t, InputState in) {
+        int phase = (int)((t / 120) % 4);          // change direction every 2 s
+        in.up    = phase == 0;
+        in.right = phase == 1;
+        in.down  = phase == 2;
+        in.left  = phase == 3;
+        in.fire  = true;
+        in.plus  = (t / 300) % 2 == 0;
+        in.minus = !in.plus;
+        in.cycleGun = t % 240 == 0;
+        in.aimChanged = true;
+        in.aimAngle = (int)((t * 3) % 360);
+        in.click = false;
+        in.selectGun = null;
+    }
+}
@@ -0,0 +1,79 @@
+package game;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the per-tick {@link InputState} of a session so {@link InputReplay} can
+ * feed it back into a {@link World} with the same seed and reproduce the run
+ * exactly. Each tick costs two bytes for the key bits, plus two for the aim angle
+ * when the mouse moved and one for a gun pick.
+ *
+ * File layout: MAGIC, VERSION, seed, star count, tick count, then the ticks.
+ */
+public class InputRecorder {
+    static final int MAGIC = 0x57535250;   // "WSRP"
+    static final int VERSION = 1;
+
+    // key bits
+    static final int UP = 1, DOWN = 1 << 1, LEFT = 1 << 2, RIGHT = 1 << 3;
+    static final int ROTATE_CW = 1 << 4, ROTATE_CCW = 1 << 5, CYCLE_GUN = 1 << 6, FIRE = 1 << 7;
+    static final int PLUS = 1 << 8, MINUS = 1 << 9, CLICK = 1 << 10;
+    static final int AIM = 1 << 11, SELECT_GUN = 1 << 12;
+
+    private final long seed;
+    private final int starCount;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private int ticks;
+
+    public InputRecorder(long seed, int starCount) {
+        this.seed = seed;
+        this.starCount = starCount;
+    }
+
+    public synchronized void record(InputState in) {
+        int bits = 0;
+        if (in.up) bits |= UP;
+        if (in.down) bits |= DOWN;
+        if (in.left) bits |= LEFT;
+        if (in.right) bits |= RIGHT;
+        if (in.rotateCw) bits |= ROTATE_CW;
+        if (in.rotateCcw) bits |= ROTATE_CCW;
+        if (in.cycleGun) bits |= CYCLE_GUN;
+        if (in.fire) bits |= FIRE;
+        if (in.plus) bits |= PLUS;
+        if (in.minus) bits |= MINUS;
+        if (in.click) bits |= CLICK;
+        if (in.aimChanged) bits |= AIM;
+        if (in.selectGun != null) bits |= SELECT_GUN;
+        try {
+            out.writeShort(bits);
+            if (in.aimChanged) out.writeShort(in.aimAngle);
+            if (in.selectGun != null) out.writeByte(in.selectGun.ordinal());
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream, can't happen
+        }
+        ticks++;
+    }
+
+    public synchronized int ticks() {
+        return ticks;
+    }
+
+    public synchronized void save(String path) throws IOException {
+        try (OutputStream file = new FileOutputStream(path)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeLong(seed);
+            header.writeInt(starCount);
+            header.writeInt(ticks);
+            header.flush();
+            bytes.writeTo(file);
+        }
+    }
+}
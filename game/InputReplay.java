@@ -0,0 +1,61 @@
+package game;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Plays back a file written by {@link InputRecorder}. Build the world with
+ * {@link #seed()} and {@link #starCount()}, then call {@link #next} once per tick.
+ */
+public class InputReplay implements AutoCloseable {
+    private static final Player.GunType[] GUNS = Player.GunType.values();
+
+    private final DataInputStream in;
+    private final long seed;
+    private final int starCount;
+    private final int ticks;
+    private int read;
+
+    public InputReplay(String path) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)));
+        if (in.readInt() != InputRecorder.MAGIC) throw new IOException(path + ": not an input recording");
+        int version = in.readInt();
+        if (version != InputRecorder.VERSION) throw new IOException(path + ": unsupported version " + version);
+        seed = in.readLong();
+        starCount = in.readInt();
+        ticks = in.readInt();
+    }
+
+    public long seed() { return seed; }
+    public int starCount() { return starCount; }
+    public int ticks() { return ticks; }
+
+    /** Fill {@code dst} with the next tick's input; false once the recording is used up. */
+    public boolean next(InputState dst) throws IOException {
+        if (read == ticks) return false;
+        int bits = in.readUnsignedShort();
+        dst.up = (bits & InputRecorder.UP) != 0;
+        dst.down = (bits & InputRecorder.DOWN) != 0;
+        dst.left = (bits & InputRecorder.LEFT) != 0;
+        dst.right = (bits & InputRecorder.RIGHT) != 0;
+        dst.rotateCw = (bits & InputRecorder.ROTATE_CW) != 0;
+        dst.rotateCcw = (bits & InputRecorder.ROTATE_CCW) != 0;
+        dst.cycleGun = (bits & InputRecorder.CYCLE_GUN) != 0;
+        dst.fire = (bits & InputRecorder.FIRE) != 0;
+        dst.plus = (bits & InputRecorder.PLUS) != 0;
+        dst.minus = (bits & InputRecorder.MINUS) != 0;
+        dst.click = (bits & InputRecorder.CLICK) != 0;
+        dst.aimChanged = (bits & InputRecorder.AIM) != 0;
+        if (dst.aimChanged) dst.aimAngle = in.readShort();
+        dst.selectGun = (bits & InputRecorder.SELECT_GUN) != 0 ? GUNS[in.readUnsignedByte()] : null;
+        read++;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
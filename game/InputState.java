@@ -0,0 +1,70 @@
+package game;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Everything the player can do to the world in one tick.
+ * Swing listeners write into a live instance through the synchronized setters; the
+ * game loop copies it once per tick with {@link #drainInto}, so the world never sees
+ * input change half way through a step.
+ */
+public class InputState {
+    // held keys
+    boolean up, down, left, right;
+    boolean rotateCw, rotateCcw;      // N / B
+    boolean cycleGun;                 // C
+    boolean fire;                     // SPACE (hold-to-fire)
+    boolean plus, minus;              // wave offset
+
+    // one-shot events, cleared after the tick that consumes them
+    boolean click;                    // mouse press
+    boolean aimChanged;               // mouse moved
+    int aimAngle;                     // degrees, valid when aimChanged
+    Player.GunType selectGun;         // 1 / 2 / 3, null if none
+
+    /** Press or release a held key; false if {@code keyCode} is not one of them. */
+    public synchronized boolean setKey(int keyCode, boolean pressed) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:     left = pressed; break;
+            case KeyEvent.VK_RIGHT:    right = pressed; break;
+            case KeyEvent.VK_UP:       up = pressed; break;
+            case KeyEvent.VK_DOWN:     down = pressed; break;
+            case KeyEvent.VK_N:        rotateCw = pressed; break;
+            case KeyEvent.VK_B:        rotateCcw = pressed; break;
+            case KeyEvent.VK_C:        cycleGun = pressed; break;
+            case KeyEvent.VK_SPACE:    fire = pressed; break;      // hold-to-fire
+            case KeyEvent.VK_EQUALS:                               // main keyboard '+'
+            case KeyEvent.VK_ADD:      plus = pressed; break;      // numpad '+'
+            case KeyEvent.VK_MINUS:                                // main keyboard '-'
+            case KeyEvent.VK_SUBTRACT: minus = pressed; break;     // numpad '-'
+            default: return false;
+        }
+        return true;
+    }
+
+    public synchronized void click() { click = true; }
+
+    public synchronized void aim(int degrees) {
+        aimAngle = degrees;
+        aimChanged = true;
+    }
+
+    public synchronized void selectGun(Player.GunType gun) { selectGun = gun; }
+
+    /** Copy this state into {@code dst} and clear the one-shot events. */
+    public synchronized void drainInto(InputState dst) {
+        dst.up = up; dst.down = down; dst.left = left; dst.right = right;
+        dst.rotateCw = rotateCw; dst.rotateCcw = rotateCcw;
+        dst.cycleGun = cycleGun;
+        dst.fire = fire;
+        dst.plus = plus; dst.minus = minus;
+        dst.click = click;
+        dst.aimChanged = aimChanged;
+        dst.aimAngle = aimAngle;
+        dst.selectGun = selectGun;
+
+        click = false;
+        aimChanged = false;
+        selectGun = null;
+    }
+}
@@ -0,0 +1,188 @@
+package game;
+
+/**
+ * Screen-space gravitational lensing: bends an already drawn RGB layer around
+ * a black hole. Only the square within 2R of the hole is touched and each pixel
+ * there costs a table lookup and one sample, so the cost follows the lensed
+ * area instead of stars x holes.
+ *
+ * {@link BlackHole#applyLensingOffset} moves a point at distance d from the
+ * hole by bend(d) * d along the tangent, which is a rotation plus a scale that
+ * depends only on d. The pass runs that backwards: every output pixel samples
+ * the source pixel that would land on it. Per radius bucket (see
+ * {@link BlackHole#radiusBucket}) a table holds the inverse as a 2x2
+ * rotation-scale for every quarter pixel of output distance.
+ *
+ * One hole at a time: {@link #prepare} copies the square it will read from,
+ * then {@link #warp} may run on disjoint row ranges from several threads at once
+ * (see TiledBackground). {@link #apply} does both on the calling thread.
+ */
+public class LensingPass {
+    private static final int STEPS = 4;            // table entries per pixel of distance
+    private static final int CACHED = 8;           // tables kept; the least recently used is rebuilt
+    private static final double COVER_STEP = 64;   // world units a table's length is rounded up to
+
+    // a few radius buckets' tables, each {a, c} pairs, then the reach, then the distance covered
+    private final int[] tableBuckets = new int[CACHED];
+    private final float[][] tables = new float[CACHED][];
+    private final long[] tableUsed = new long[CACHED];
+    private long clock;
+    private int[] scratch = new int[0];            // untouched copy of the lensed square
+
+    // the prepared hole, read-only while warp() runs
+    private float[] table;
+    private double hx, hy, steps, reach2, hidden2;
+    private int x0, x1, y0, y1, w, h;
+
+    public void apply(int[] pixels, int width, int height, double hx, double hy, double radius) {
+        apply(pixels, width, height, hx, hy, radius, 1);
+    }
+
+    /**
+     * Lens {@code pixels} (row-major, {@code width} x {@code height}) around a
+     * hole at pixel (hx, hy) with the given world radius, for a layer drawn at
+     * {@code scale} pixels per world unit. Applying holes one after another
+     * matches the order applyLensingOffset was chained in.
+     */
+    public void apply(int[] pixels, int width, int height, double hx, double hy, double radius, double scale) {
+        if (prepare(pixels, width, height, hx, hy, radius, scale)) warp(pixels, width, y0, y1 + 1);
+    }
+
+    /**
+     * Set up the pass for one hole (arguments as for {@link #apply}). False if it
+     * would not move any pixel on the layer.
+     */
+    boolean prepare(int[] pixels, int width, int height, double hx, double hy, double radius, double scale) {
+        int bucket = BlackHole.radiusBucket(radius);
+        // no pixel of the layer is further from the hole than its furthest corner
+        double far = Math.hypot(Math.max(hx, width - hx), Math.max(hy, height - hy)) / scale;
+        float[] table = table(bucket, Math.ceil(far / COVER_STEP) * COVER_STEP);
+        // the bend depends on the world radius, not the pixel one, so the table stays in
+        // world units and only distances are scaled; the rotation-scale itself is unitless
+        double reach = table[table.length - 2] * scale;
+        if (reach <= 0) return false;
+        // the core is painted opaque over this layer, so what lands inside it is never seen
+        double hidden = (radius - 1) * scale;
+
+        x0 = Math.max(0, (int)Math.floor(hx - reach));
+        x1 = Math.min(width - 1, (int)Math.ceil(hx + reach));
+        y0 = Math.max(0, (int)Math.floor(hy - reach));
+        y1 = Math.min(height - 1, (int)Math.ceil(hy + reach));
+        if (x0 > x1 || y0 > y1) return false;
+        w = x1 - x0 + 1;
+        h = y1 - y0 + 1;
+        if (scratch.length < w * h) scratch = new int[w * h];
+        for (int y = y0; y <= y1; y++) System.arraycopy(pixels, y * width + x0, scratch, (y - y0) * w, w);
+
+        this.table = table;
+        this.hx = hx;
+        this.hy = hy;
+        steps = STEPS / scale;
+        reach2 = reach * reach;
+        hidden2 = hidden > 0 ? hidden * hidden : 0;
+        return true;
+    }
+
+    /** Lens rows [rowFrom, rowTo) of the layer for the prepared hole. */
+    void warp(int[] pixels, int width, int rowFrom, int rowTo) {
+        int from = Math.max(y0, rowFrom), to = Math.min(y1 + 1, rowTo);
+        for (int y = from; y < to; y++) {
+            double py = y + 0.5 - hy;
+            double span2 = reach2 - py * py;
+            if (span2 <= 0) continue;
+            // only the pixels inside the 2R circle move
+            double span = Math.sqrt(span2);
+            int xa = Math.max(x0, (int)Math.ceil(hx - span - 0.5));
+            int xb = Math.min(x1, (int)Math.floor(hx + span - 0.5));
+            double inner2 = hidden2 - py * py;
+            if (inner2 > 0) {
+                // left and right of the core
+                double inner = Math.sqrt(inner2);
+                int ia = (int)Math.ceil(hx - inner - 0.5), ib = (int)Math.floor(hx + inner - 0.5);
+                warpRow(pixels, y * width, Math.max(xa, ib + 1), xb, py);
+                xb = Math.min(xb, ia - 1);
+            }
+            warpRow(pixels, y * width, xa, xb, py);
+        }
+    }
+
+    /** Rows the prepared hole touches: [firstRow(), lastRow()]. */
+    int firstRow() { return y0; }
+    int lastRow() { return y1; }
+
+    private void warpRow(int[] pixels, int row, int xa, int xb, double py) {
+        float[] table = this.table;
+        int[] scratch = this.scratch;
+        int w = this.w, h = this.h;
+        double hx = this.hx, steps = this.steps;
+        int last = table.length - 4;
+        // offsets relative to the square, +1 so truncation floors for anything down to -1
+        double ox = hx - x0 + 1, oy = hy - y0 + 1;
+        for (int x = xa; x <= xb; x++) {
+            double px = x + 0.5 - hx;
+            int i = (int)(Math.sqrt(px * px + py * py) * steps) << 1;
+            if (i > last) continue;
+            float a = table[i], c = table[i + 1];
+            // the source is never further out than the output, so it is in the square
+            // unless the square was clipped by the screen edge; off screen is empty space
+            int sx = (int)(ox + a * px + c * py) - 1;
+            int sy = (int)(oy - c * px + a * py) - 1;
+            pixels[row + x] = sx >= 0 && sx < w && sy >= 0 && sy < h ? scratch[sy * w + sx] : 0;
+        }
+    }
+
+    // The bucket's table out to at least {@code cover} world units (or all of 2R).
+    // Holes grow through buckets and move slowly, so a handful covers every hole on
+    // screen and a rebuild is rare; one that is too short is rebuilt longer in place.
+    private float[] table(int bucket, double cover) {
+        int slot = -1;
+        for (int e = 0; e < CACHED; e++) {
+            if (tables[e] != null && tableBuckets[e] == bucket) { slot = e; break; }
+        }
+        if (slot < 0) {
+            slot = 0;
+            for (int e = 1; e < CACHED && tables[slot] != null; e++) {
+                if (tables[e] == null || tableUsed[e] < tableUsed[slot]) slot = e;
+            }
+        }
+        float[] t = tables[slot];
+        double radius = BlackHole.bucketRadius(bucket);
+        if (t == null || tableBuckets[slot] != bucket || t[t.length - 1] < Math.min(cover, 2 * radius)) {
+            tables[slot] = t = buildTable(radius, cover);
+            tableBuckets[slot] = bucket;
+        }
+        tableUsed[slot] = ++clock;
+        return t;
+    }
+
+    // Forward, a point s at distance d goes to M s with M = [[1, -b], [b, 1]], b = bend(d).
+    // So the output distance is d * sqrt(1 + b^2); solve that for d, then
+    // s = M^-1 p = (a p.x + c p.y, -c p.x + a p.y) with a = 1 / (1 + b^2), c = b / (1 + b^2).
+    // Then the reach: past it nothing moves by half a pixel, so the pass stops there
+    // (and small holes, which never bend that far, skip it entirely). Last the distance
+    // covered, 2R or less when the layer ends sooner.
+    private static float[] buildTable(double radius, double cover) {
+        double covered = Math.min(2 * radius, cover);
+        int n = (int)Math.ceil(covered * STEPS) + 1;
+        float[] t = new float[n * 2 + 2];
+        float reach = 0;
+        for (int k = 0; k < n; k++) {
+            double out = (k + 0.5) / STEPS;
+            double lo = 0, hi = out;
+            for (int it = 0; it < 40; it++) {
+                double d = (lo + hi) / 2;
+                double b = BlackHole.bend(radius, d);
+                if (d * Math.sqrt(1 + b * b) < out) lo = d; else hi = d;
+            }
+            double b = BlackHole.bend(radius, (lo + hi) / 2);
+            double ta = 1 / (1 + b * b), tc = b / (1 + b * b);
+            t[k * 2] = (float) ta;
+            t[k * 2 + 1] = (float) tc;
+            // |p - s| = |p| * |(1 - a, c)|
+            if (out * Math.hypot(1 - ta, tc) >= 0.5) reach = (float)((k + 1.0) / STEPS);
+        }
+        t[n * 2] = reach;
+        t[n * 2 + 1] = (float) covered;
+        return t;
+    }
+}
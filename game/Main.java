@@ -1,9 +1,27 @@
 package game;
 
 import javax.swing.JFrame;
+import java.io.IOException;
 
 public class Main {
+    // args: [--seed N] [--record FILE]  (replay recordings with HeadlessSim --replay)
+    //       [--scale 0.5..1]  fixed world render scale; default follows the quality governor
+    //       [--upscale auto|nearest|bilinear]  filter for a scaled world (see Renderer.upscale)
     public static void main(String[] args) {
+        long seed = System.nanoTime();
+        String recordPath = null;
+        float scale = 0;
+        int upscale = Renderer.UPSCALE_AUTO;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--seed")) seed = Long.parseLong(args[++i]);
+            else if (args[i].equals("--record")) recordPath = args[++i];
+            else if (args[i].equals("--scale")) scale = Math.max(0.5f, Math.min(1f, Float.parseFloat(args[++i])));
+            else if (args[i].equals("--upscale")) {
+                String mode = args[++i];
+                upscale = mode.equals("nearest") ? Renderer.UPSCALE_NEAREST
+                        : mode.equals("bilinear") ? Renderer.UPSCALE_BILINEAR : Renderer.UPSCALE_AUTO;
+            }
+        }
     	
     	MidiSynth.init("C:\\Users\\jwate\\ASU-CSE360-SP25\\WaveShooter\\FluidR3_GM.sf2");
     	
@@ -11,9 +29,25 @@ public class Main {
         // Game window
         JFrame window = new JFrame("Wave Shooter");
         window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        window.setResizable(false);
+        window.setResizable(true);       // the world scales to fit; game logic stays 1200x800
+        window.setIgnoreRepaint(true);   // GamePanel renders actively
 
-        GamePanel gamePanel = new GamePanel();
+        GamePanel gamePanel = new GamePanel(seed);
+        gamePanel.renderer.renderScale = scale;
+        gamePanel.renderer.upscale = upscale;
+        if (recordPath != null) {
+            InputRecorder recorder = gamePanel.startRecording();
+            final String path = recordPath;
+            // closing the window exits the VM; write the recording on the way out
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recorder.save(path);
+                    System.out.println("Saved " + recorder.ticks() + " ticks of input to " + path);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
         window.add(gamePanel);
         window.pack();
         window.setLocationRelativeTo(null);
@@ -0,0 +1,495 @@
+package game;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.RadialGradientPaint;
+import java.awt.RenderingHints;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Every short-lived effect in the world, as one fixed-capacity structure of
+ * arrays. Emitters ({@link #ringBurst}, {@link #shrapnel}, {@link #swirl})
+ * append particles of a kind; {@link #update} then advances all of them in one
+ * loop whose per-kind behaviour comes from the tables below, so adding an
+ * effect means a kind, a row in each table, an emitter and a draw method.
+ *
+ * Rings and the cosmetic kinds each get a pool of their own in the same arrays,
+ * a circular buffer in spawn order. When one is full its oldest particle is
+ * recycled for the new one, so a burst of effects costs old ones rather than
+ * memory, and sparks or motes never cut a ring short (rings count towards
+ * {@link World#checksum}). Nothing allocates once constructed.
+ *
+ * Emitters draw from the pool's own generator, so effects never shift the
+ * numbers the rest of the simulation sees.
+ */
+public class Particles {
+    // kinds
+    static final byte RING = 0;      // puffed rim expanding to a black hole's edge
+    static final byte SPARK = 1;     // shrapnel streak thrown off a hit
+    static final byte MOTE = 2;      // dot spiralling into a hole after a capture
+    static final int KINDS = 3;
+
+    // per kind: RING, SPARK, MOTE
+    private static final float[] GROWTH  = { 3, 0, 0 };          // size per tick until maxSize
+    private static final int[] FADE_DONE = { 7, 12, 6 };         // alpha per tick once grown
+    private static final double[] DRAG   = { 1, 0.88, 0.94 };    // velocity kept per tick
+    private static final double[] PULL   = { 0, 0, 0.012 };      // spring towards (cx, cy)
+
+    static final int SPARKS_PER_HIT = 8;
+    static final int MOTES_PER_CAPTURE = 5;
+
+    // one circular buffer over slots [base, base + capacity), oldest from head on
+    private static final class Pool {
+        final int base, mask;
+        int head, count;
+
+        Pool(int base, int capacity) {
+            this.base = base;
+            this.mask = capacity - 1;
+        }
+
+        int slot(int k) { return base + ((head + k) & mask); }
+    }
+
+    private final Pool rings, effects;
+    private final int[] live = new int[KINDS];
+    private long emitted, recycled;
+
+    byte[] kind;
+    double[] x, y;              // position (a ring's centre)
+    double[] prevX, prevY;      // at the start of the tick (render interpolation)
+    double[] vx, vy;
+    double[] cx, cy;            // what PULL pulls towards
+    float[] size, prevSize;     // ring radius, spark width, mote radius
+    float[] maxSize;
+    int[] alpha;                // 0..255, dead at 0
+    int[] fade;                 // alpha per tick while still growing
+
+    private final GameRandom rng;
+
+    /** Room for rings and for sparks and motes; each is rounded up to a power of two. */
+    public Particles(int ringCapacity, int effectCapacity, long seed) {
+        int ringCap = Integer.highestOneBit(Math.max(2, ringCapacity - 1)) << 1;
+        int effectCap = Integer.highestOneBit(Math.max(2, effectCapacity - 1)) << 1;
+        rings = new Pool(0, ringCap);
+        effects = new Pool(ringCap, effectCap);
+        int cap = ringCap + effectCap;
+        kind = new byte[cap];
+        x = new double[cap];
+        y = new double[cap];
+        prevX = new double[cap];
+        prevY = new double[cap];
+        vx = new double[cap];
+        vy = new double[cap];
+        cx = new double[cap];
+        cy = new double[cap];
+        size = new float[cap];
+        prevSize = new float[cap];
+        maxSize = new float[cap];
+        alpha = new int[cap];
+        fade = new int[cap];
+        rng = new GameRandom(seed);
+    }
+
+    public int size() { return rings.count + effects.count; }
+    public int capacity() { return kind.length; }
+    /** Slot of the k-th live particle in 0 .. size(): rings, then the rest, each oldest first. */
+    public int slot(int k) {
+        return k < rings.count ? rings.slot(k) : effects.slot(k - rings.count);
+    }
+    /** Live particles of one kind. */
+    public int count(byte k) { return live[k]; }
+    public long emitted() { return emitted; }
+    /** Particles cut short because the pool was full. */
+    public long recycled() { return recycled; }
+
+    public void clear() {
+        rings.head = rings.count = 0;
+        effects.head = effects.count = 0;
+        Arrays.fill(live, 0);
+    }
+
+    // --- emitters ---
+
+    /** A ring growing from the centre until it reaches {@code maxRadius}, then fading. */
+    public void ringBurst(double x, double y, int maxRadius) {
+        // the fade while growing is integer division, so rings over 50 px only fade once grown
+        spawn(RING, x, y, 0, 0, 1, maxRadius, 200, 50 / Math.max(1, maxRadius));
+        emitted(GameEvents.Emitted.RING_BURST, x, y, 1);
+    }
+
+    /** Sparks sprayed from a hit at (x, y), centred on {@code angle}. */
+    public void shrapnel(double x, double y, double angle) {
+        for (int k = 0; k < SPARKS_PER_HIT; k++) {
+            double a = angle + (rng.nextDouble() - 0.5) * Math.PI * 1.2;
+            double speed = 3 + rng.nextDouble() * 5;
+            float width = 1 + (float) rng.nextDouble();
+            spawn(SPARK, x, y, Math.cos(a) * speed, Math.sin(a) * speed, width, width, 255, 0);
+        }
+        emitted(GameEvents.Emitted.SHRAPNEL, x, y, SPARKS_PER_HIT);
+    }
+
+    /** Motes circling in towards a hole of the given radius that just captured a star. */
+    public void swirl(double x, double y, double radius) {
+        double omega = Math.sqrt(PULL[MOTE]);     // angular speed of a circular orbit on the spring
+        for (int k = 0; k < MOTES_PER_CAPTURE; k++) {
+            double a = rng.nextDouble() * Math.PI * 2;
+            double d = radius * (1.3 + rng.nextDouble() * 0.6);
+            float r = 2 + (float) rng.nextDouble() * 2;
+            int i = spawn(MOTE, x + Math.cos(a) * d, y + Math.sin(a) * d,
+                          -Math.sin(a) * d * omega, Math.cos(a) * d * omega, r, r, 220, 0);
+            cx[i] = x;
+            cy[i] = y;
+        }
+        emitted(GameEvents.Emitted.SWIRL, x, y, MOTES_PER_CAPTURE);
+    }
+
+    // Next slot after the newest in the kind's pool, taking the oldest's when full.
+    // (cx, cy) default to the start.
+    private int spawn(byte k, double px, double py, double pvx, double pvy,
+                      float s, float smax, int a, int growFade) {
+        Pool pool = k == RING ? rings : effects;
+        if (pool.count == pool.mask + 1) {
+            live[kind[pool.slot(0)]]--;
+            pool.head = (pool.head + 1) & pool.mask;
+            pool.count--;
+            recycled++;
+        }
+        int i = pool.slot(pool.count++);
+        kind[i] = k;
+        x[i] = prevX[i] = cx[i] = px;
+        y[i] = prevY[i] = cy[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        size[i] = prevSize[i] = s;
+        maxSize[i] = smax;
+        alpha[i] = a;
+        fade[i] = growFade;
+        live[k]++;
+        emitted++;
+        return i;
+    }
+
+    private static void emitted(String emitter, double x, double y, int count) {
+        GameEvents.Emitted event = new GameEvents.Emitted();
+        if (event.isEnabled()) {
+            event.emitter = emitter;
+            event.x = x;
+            event.y = y;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    // --- simulation ---
+
+    /**
+     * One tick for every particle: remember where it was, move, grow or fade,
+     * and pack the survivors down in order so each pool stays oldest first.
+     */
+    public void update() {
+        update(rings);
+        update(effects);
+    }
+
+    private void update(Pool pool) {
+        int n = pool.count, kept = 0;
+        for (int k = 0; k < n; k++) {
+            int i = pool.slot(k);
+            byte t = kind[i];
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            prevSize[i] = size[i];
+
+            double pull = PULL[t], drag = DRAG[t];
+            vx[i] = (vx[i] + (cx[i] - x[i]) * pull) * drag;
+            vy[i] = (vy[i] + (cy[i] - y[i]) * pull) * drag;
+            x[i] += vx[i];
+            y[i] += vy[i];
+
+            // grow until the limit, then lock to it and fade quickly
+            int a = alpha[i];
+            if (size[i] >= maxSize[i]) {
+                size[i] = maxSize[i];
+                a -= FADE_DONE[t];
+            } else {
+                size[i] += GROWTH[t];
+                a -= fade[i];
+            }
+            if (a <= 0) {
+                live[t]--;
+                continue;
+            }
+            alpha[i] = a;
+            if (kept != k) move(i, pool.slot(kept));
+            kept++;
+        }
+        pool.count = kept;
+    }
+
+    private void move(int from, int to) {
+        kind[to] = kind[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        prevX[to] = prevX[from];
+        prevY[to] = prevY[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        cx[to] = cx[from];
+        cy[to] = cy[from];
+        size[to] = size[from];
+        prevSize[to] = prevSize[from];
+        maxSize[to] = maxSize[from];
+        alpha[to] = alpha[from];
+        fade[to] = fade[from];
+    }
+
+    // --- drawing (from RenderSnapshot fields) ---
+
+    /**
+     * Furthest anything drawn for a particle reaches from its position, beyond
+     * the distance it moved this tick. A ring: rim jitter plus the largest puff
+     * (thickness * 1.6), or the halo (thickness * 1.5), with thickness <= 18.
+     */
+    static double extent(byte k, double size) {
+        return k == RING ? size * 1.01 + 32 : size + 2;
+    }
+
+    // Sprites for the puffed rim, the halo and motes. Particles are rasterised by the
+    // background workers (see TiledBackground), so both sets are filled on the render
+    // thread by prepare() before they fork and only read while they draw: puffs are a
+    // fixed table by radius in half pixels (rings 6..28.8 px, motes 2..4), halos a
+    // shared cache keyed by thickness and ring radius bucket. Halos stop at MAX_HALO px
+    // square: past that a ring is a wide circle of puffs and its faint halo would cost
+    // its whole circumference in gradient fill, which next to a huge hole adds up to
+    // dozens of screens per frame. One the cache could not keep is filled directly.
+    private static final int MAX_PUFF_KEY = 60;
+    private static final int MAX_HALO = 512;
+    private static final int HALO_FADE = 128;     // px of sprite size over which halos fade out
+    private static BufferedImage[] puffs;
+    private static final SpriteCache HALOS = new SpriteCache(32L << 20, 512);  // every halo under MAX_HALO fits (~27 MB)
+    private static final int HALO_KEY = 1 << 30;
+    private static final double HALO_LOG_STEP = Math.log(1.02);  // 2% radius steps past 64 px
+    private static final Color PUFF_0 = new Color(200, 100, 255, 180);  // inner of each puff
+    private static final Color PUFF_1 = new Color(200, 100, 255,  40);  // mid
+    private static final Color PUFF_2 = new Color(200, 100, 255,   0);  // fully transparent
+    private static final Color HALO = new Color(200, 100, 255, 60);
+    private static final Color CLEAR = new Color(0, 0, 0, 0);
+
+    // one composite / colour per alpha, so drawing allocates nothing
+    private static final AlphaComposite[] PUFF_ALPHA = new AlphaComposite[256];
+    private static final AlphaComposite[] HALO_ALPHA = new AlphaComposite[256];
+    private static final Color[] SPARK_COLOR = new Color[256];
+    static {
+        for (int a = 0; a < 256; a++) {
+            PUFF_ALPHA[a] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a / 255f * 0.9f);
+            HALO_ALPHA[a] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a / 255f * 0.32f);
+            SPARK_COLOR[a] = new Color(255, 210, 140, a);
+        }
+    }
+
+    /**
+     * Render every sprite the snapshot's particles need at {@code alpha} between its
+     * ticks. Render thread only; call before handing the particles to other threads.
+     */
+    static void prepare(RenderSnapshot s, double alpha) {
+        puffs();
+        for (int i = 0; i < s.partCount; i++) {
+            if (s.partKind[i] != RING || s.partAlpha[i] <= 0) continue;
+            prepareHalo(s.partPrevSize[i] + (s.partSize[i] - s.partPrevSize[i]) * alpha);
+        }
+    }
+
+    // Draws a ring; rng supplies the rim jitter
+    public static void drawRing(Graphics2D g2, double x, double y, double radius, int alpha, GameRandom rng) {
+        drawRing(g2, x, y, radius, alpha, rng, 28);
+    }
+
+    // puffs: soft dots around the rim, more = smoother / costlier. Render thread only.
+    public static void drawRing(Graphics2D g2, double x, double y, double radius, int alpha, GameRandom rng, int puffs) {
+        puffs();
+        prepareHalo(radius);
+        drawRing(g2, x, y, radius, alpha, rng, puffs, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    // Only the parts overlapping world rows [top, bottom]: a background band draws just
+    // its slice of the ring. The jitter is drawn for every puff either way, so slices of
+    // the same ring from the same rng state line up. Needs prepare() first.
+    static void drawRing(Graphics2D g2, double x, double y, double radius, int alpha, GameRandom rng, int puffs,
+                         double top, double bottom) {
+        if (alpha <= 0) return;
+        if (alpha > 255) alpha = 255;
+
+        Composite oldComp = g2.getComposite();
+
+        // Thickness scales a bit with ring size but stays in a nice range
+        float thickness = thickness(radius);
+
+        // --- puffed rim: lots of soft dots around the circle ---
+        double jitter = 2.0 + radius * 0.02;       // slight irregularity along rim
+
+        g2.setComposite(PUFF_ALPHA[alpha]);
+
+        for (int i = 0; i < puffs; i++) {
+            double ang = (i / (double)puffs) * Math.PI * 2.0;
+            double jr  = (rng.nextDouble() - 0.5) * jitter;
+
+            double cx = x + Math.cos(ang) * (radius + jr);
+            double cy = y + Math.sin(ang) * (radius + jr);
+            float R  = thickness + (float)(rng.nextDouble() * thickness * 0.6);
+            if (cy + R + 1 < top || cy - R - 1 > bottom) continue;
+
+            BufferedImage puff = puff(R);
+            int half = puff.getWidth() / 2;
+            g2.drawImage(puff, (int)Math.round(cx) - half, (int)Math.round(cy) - half, null);
+        }
+
+        // --- subtle outer halo to sell the softness, fading out towards MAX_HALO ---
+        int bucket = haloBucket(radius);
+        double r = haloRadius(bucket);
+        int size = haloSize(r, Math.round(thickness));
+        if (size < MAX_HALO) {
+            g2.setComposite(HALO_ALPHA[alpha * Math.min(HALO_FADE, MAX_HALO - size) / HALO_FADE]);
+            BufferedImage halo = HALOS.peek(haloKey(bucket, thickness));
+            if (halo == null) {
+                paintHalo(g2, r, Math.round(thickness), (float) x, (float) y);
+            } else {
+                int half = halo.getWidth() / 2;
+                g2.drawImage(halo, (int)Math.round(x) - half, (int)Math.round(y) - half, null);
+            }
+        }
+
+        g2.setComposite(oldComp);
+    }
+
+    /** A spark as a streak from where it was at the start of the tick to where it is. */
+    static void drawSpark(Graphics2D g2, double fromX, double fromY, double x, double y, int alpha) {
+        if (alpha <= 0) return;
+        g2.setColor(SPARK_COLOR[Math.min(255, alpha)]);
+        g2.drawLine((int)Math.round(fromX), (int)Math.round(fromY), (int)Math.round(x), (int)Math.round(y));
+    }
+
+    /** A mote: one small puff. Needs prepare() first. */
+    static void drawMote(Graphics2D g2, double x, double y, double radius, int alpha) {
+        if (alpha <= 0) return;
+        Composite oldComp = g2.getComposite();
+        g2.setComposite(PUFF_ALPHA[Math.min(255, alpha)]);
+        BufferedImage puff = puff((float) radius);
+        int half = puff.getWidth() / 2;
+        g2.drawImage(puff, (int)Math.round(x) - half, (int)Math.round(y) - half, null);
+        g2.setComposite(oldComp);
+    }
+
+    private static float thickness(double radius) {
+        return (float)Math.max(6, Math.min(18, radius * 0.12));
+    }
+
+    // built on first use; render thread only
+    private static BufferedImage[] puffs() {
+        if (puffs == null) {
+            BufferedImage[] table = new BufferedImage[MAX_PUFF_KEY + 1];
+            for (int key = 1; key <= MAX_PUFF_KEY; key++) table[key] = renderPuff(key / 2f);
+            puffs = table;
+        }
+        return puffs;
+    }
+
+    private static BufferedImage puff(float R) {
+        int key = Math.round(R * 2);
+        return puffs[key < 1 ? 1 : (key > MAX_PUFF_KEY ? MAX_PUFF_KEY : key)];
+    }
+
+    private static int haloKey(int bucket, float thickness) {
+        return HALO_KEY | Math.round(thickness) << 16 | bucket;
+    }
+
+    // side of the square halo sprite for a ring of radius r
+    private static int haloSize(double r, float thickness) {
+        return 2 * (int)Math.ceil(r + thickness * 1.5) + 2;
+    }
+
+    private static void prepareHalo(double radius) {
+        float thickness = thickness(radius);
+        int bucket = haloBucket(radius);
+        double r = haloRadius(bucket);
+        if (haloSize(r, Math.round(thickness)) >= MAX_HALO) return;
+        int key = haloKey(bucket, thickness);
+        if (HALOS.get(key) == null) HALOS.put(key, renderHalo(r, Math.round(thickness)));
+    }
+
+    // halo radii: 1 px steps up to 64 px, then 2% steps so big rings share sprites
+    private static int haloBucket(double r) {
+        return r <= 64 ? Math.max(1, (int)Math.round(r)) : 64 + (int)Math.round(Math.log(r / 64) / HALO_LOG_STEP);
+    }
+
+    private static double haloRadius(int bucket) {
+        return bucket <= 64 ? bucket : 64 * Math.exp((bucket - 64) * HALO_LOG_STEP);
+    }
+
+    // square ARGB image with (size / 2, size / 2) as the centre, antialiased
+    private static Graphics2D sprite(BufferedImage img) {
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g;
+    }
+
+    private static BufferedImage renderPuff(float R) {
+        int size = 2 * (int)Math.ceil(R) + 2;
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = sprite(img);
+        float c = size / 2f;
+        g.setPaint(new RadialGradientPaint(
+            new Point2D.Float(c, c), R,
+            new float[] { 0f, 0.6f, 1f },
+            new Color[] { PUFF_0, PUFF_1, PUFF_2 }
+        ));
+        g.fill(new Ellipse2D.Float(c - R, c - R, 2 * R, 2 * R));
+        g.dispose();
+        return img;
+    }
+
+    private static BufferedImage renderHalo(double radius, float thickness) {
+        int size = haloSize(radius, thickness);
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = sprite(img);
+        fillHalo(g, radius, thickness, size / 2f, size / 2f);
+        g.dispose();
+        return img;
+    }
+
+    // straight onto the target; its clip (a band, say) bounds the fill
+    private static void paintHalo(Graphics2D g2, double radius, float thickness, float cx, float cy) {
+        Paint paint = g2.getPaint();
+        Stroke stroke = g2.getStroke();
+        Object aa = g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        fillHalo(g2, radius, thickness, cx, cy);
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, aa);
+        g2.setStroke(stroke);
+        g2.setPaint(paint);
+    }
+
+    // Only the band from just inside the ring out to the halo's edge is painted,
+    // as a thick stroked circle: inside that the gradient is clear anyway.
+    private static void fillHalo(Graphics2D g, double radius, float thickness, float cx, float cy) {
+        float haloR = (float)(radius + thickness * 1.5);
+        float innerFrac = Math.max(0f, Math.min(1f, (float)(radius / haloR)));
+        float inner = Math.max(0f, innerFrac - 0.02f);
+        g.setPaint(new RadialGradientPaint(
+            new Point2D.Float(cx, cy), haloR,
+            new float[] { inner, innerFrac, 1f },
+            new Color[] { CLEAR, HALO, CLEAR }
+        ));
+        float r0 = haloR * inner, mid = (r0 + haloR) / 2;
+        g.setStroke(new BasicStroke(haloR - r0));
+        g.draw(new Ellipse2D.Float(cx - mid, cy - mid, 2 * mid, 2 * mid));
+    }
+}
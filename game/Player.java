@@ -3,8 +3,9 @@ package game;
 import java.awt.Color;
 import java.awt.GradientPaint;
 import java.awt.Graphics2D;
-import java.awt.Polygon;
 import java.awt.BasicStroke;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 
 public class Player {
     int x, y, radius;
@@ -13,6 +14,8 @@ public class Player {
     double rollAngle = 0;   // direction of movement
     double rollOffset = 0;  // shifts gradient to simulate spin
     double spinAngle = 0;  // radians, keeps spinning
+    int prevX, prevY, prevAngle;   // at the start of the tick, for render interpolation
+    double prevSpin;
     public double offsetAmt = 1.0; // default offset, range 0.1 – 2.0
     double vx = 0, vy = 0;   // velocity
     double ax = 0, ay = 0;   // acceleration
@@ -29,7 +32,8 @@ public class Player {
         this.x = x;
         this.y = y;
         this.radius = radius;
-        
+        prevX = x;
+        prevY = y;
     }
 
     public void setGun(GunType gun) {
@@ -100,110 +104,106 @@ public class Player {
         }
     }
 
-    public void draw(Graphics2D g2) {
-        // -------------------------------
-        // Gradient spin (uses spinAngle)
-        // -------------------------------
-        double gradRad = spinAngle;
-
-        int gradX1 = (int)(x - radius * Math.cos(gradRad));
-        int gradY1 = (int)(y - radius * Math.sin(gradRad));
-        int gradX2 = (int)(x + radius * Math.cos(gradRad));
-        int gradY2 = (int)(y + radius * Math.sin(gradRad));
-        GradientPaint gradient;
-        Color outlineColor;
-        switch (currentGun) {
-            case TRIANGLE:
-                gradient = new GradientPaint(
-                    gradX1, gradY1, new Color(255, 140, 100),
-                    gradX2, gradY2, new Color(120, 20, 0)
-                );
-                outlineColor = new Color(90, 30, 10);
-                break;
-            case SQUARE:
-                gradient = new GradientPaint(
-                    gradX1, gradY1, new Color(120, 220, 255),
-                    gradX2, gradY2, new Color(0, 40, 120)
-                );
-                outlineColor = new Color(0, 30, 80);
-                break;
-            case SINE:
-                gradient = new GradientPaint(
-                    gradX1, gradY1, new Color(180, 255, 180),
-                    gradX2, gradY2, new Color(0, 80, 40)
-                );
-                outlineColor = new Color(0, 40, 20);
-                break;
-            default:
-                gradient = new GradientPaint(
-                    gradX1, gradY1, new Color(180, 255, 255),
-                    gradX2, gradY2, new Color(0, 60, 120)
-                );
-                outlineColor = new Color(0, 50, 100);
+    // Pre-rendered looks; render thread only. The body only changes with the gun
+    // and the spin, so every (gun, radius, spin step) frame is cached. The arrowhead
+    // changes with the gun and offsetAmt; it is rendered pointing along +x and
+    // re-rendered only when its bucket changes, then rotated into place on draw.
+    static final int SPIN_STEPS = 64;
+    static final double OFFSET_STEP = 0.05;
+    private static final SpriteCache BODIES = new SpriteCache(8L << 20, SPIN_STEPS * 4);
+    private static BufferedImage arrow;
+    private static int arrowKey = -1;
+    private static int arrowOriginX, arrowOriginY;   // sprite pixel at the player's centre
+    private static final AffineTransform ARROW_XF = new AffineTransform();
+    private static final BasicStroke OUTLINE = new BasicStroke(2);
+
+    private static final Color[] GRAD_LIGHT = { new Color(255, 140, 100), new Color(120, 220, 255), new Color(180, 255, 180) };
+    private static final Color[] GRAD_DARK  = { new Color(120, 20, 0),    new Color(0, 40, 120),    new Color(0, 80, 40) };
+    private static final Color[] OUTLINE_COLOR = { new Color(90, 30, 10), new Color(0, 30, 80),     new Color(0, 40, 20) };
+    private static final Color[] ARROW_LIGHT   = { new Color(255, 200, 160), new Color(150, 240, 255), new Color(180, 255, 180) };
+    private static final Color[] ARROW_DARK    = { new Color(120, 40, 0),    new Color(0, 60, 160),    new Color(0, 100, 40) };
+
+    // Draws the player from its render-snapshot fields (see RenderSnapshot)
+    public static void draw(Graphics2D g2, int x, int y, int radius, int angle,
+                            double spinAngle, double offsetAmt, GunType currentGun) {
+        int gun = currentGun.ordinal();
+
+        // body: one blit of the cached spin frame
+        double turns = spinAngle / (2 * Math.PI);
+        int step = (int)Math.round((turns - Math.floor(turns)) * SPIN_STEPS) & (SPIN_STEPS - 1);
+        int key = (gun * 1024 + radius) * SPIN_STEPS + step;
+        BufferedImage body = BODIES.get(key);
+        if (body == null) BODIES.put(key, body = renderBody(gun, radius, step * 2 * Math.PI / SPIN_STEPS));
+        int half = body.getWidth() / 2;
+        g2.drawImage(body, x - half, y - half, null);
+
+        // arrowhead: the cached sprite rotated to the aim angle about the player's centre
+        int ob = (int)Math.round(offsetAmt / OFFSET_STEP);
+        int aKey = (gun * 1024 + radius) * 1024 + ob;
+        if (aKey != arrowKey) {
+            arrow = renderArrow(gun, radius, ob * OFFSET_STEP);
+            arrowKey = aKey;
         }
+        ARROW_XF.setToTranslation(x, y);
+        ARROW_XF.rotate(Math.toRadians(angle));
+        ARROW_XF.translate(-arrowOriginX, -arrowOriginY);
+        g2.drawImage(arrow, ARROW_XF, null);   // filtered or not per the caller's KEY_INTERPOLATION
+    }
 
-        g2.setPaint(gradient);
-        g2.fillOval(x - radius, y - radius, radius * 2, radius * 2);
-
-        g2.setColor(outlineColor);
-        g2.setStroke(new BasicStroke(2));
-        g2.drawOval(x - radius, y - radius, radius * 2, radius * 2);
-
-        // -------------------------------
-        // Gun/arrow (uses angle)
-        // -------------------------------
-        double coneRad = Math.toRadians(angle);
+    // -------------------------------
+    // Gradient spin (uses spinAngle)
+    // -------------------------------
+    private static BufferedImage renderBody(int gun, int radius, double gradRad) {
+        int size = radius * 2 + 4;   // room for the 2 px outline
+        int c = size / 2;
+        BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = img.createGraphics();
+
+        int gradX1 = (int)(c - radius * Math.cos(gradRad));
+        int gradY1 = (int)(c - radius * Math.sin(gradRad));
+        int gradX2 = (int)(c + radius * Math.cos(gradRad));
+        int gradY2 = (int)(c + radius * Math.sin(gradRad));
+        g.setPaint(new GradientPaint(gradX1, gradY1, GRAD_LIGHT[gun], gradX2, gradY2, GRAD_DARK[gun]));
+        g.fillOval(c - radius, c - radius, radius * 2, radius * 2);
+
+        g.setColor(OUTLINE_COLOR[gun]);
+        g.setStroke(OUTLINE);
+        g.drawOval(c - radius, c - radius, radius * 2, radius * 2);
+        g.dispose();
+        return img;
+    }
 
+    // -------------------------------
+    // Gun/arrow, pointing along +x
+    // -------------------------------
+    private static BufferedImage renderArrow(int gun, int radius, double offsetAmt) {
         double arrowLength = (25 * (offsetAmt * 0.66) + 5);
         double arrowWidth  = (15 * (offsetAmt * 0.25) + 5);
 
-        int innerX = x + (int)(radius * Math.cos(coneRad));
-        int innerY = y + (int)(radius * Math.sin(coneRad));
-
-        int tipX = innerX + (int)(arrowLength * Math.cos(coneRad));
-        int tipY = innerY + (int)(arrowLength * Math.sin(coneRad));
-
-        int baseX1 = innerX + (int)(arrowWidth * Math.cos(coneRad + Math.PI / 2));
-        int baseY1 = innerY + (int)(arrowWidth * Math.sin(coneRad + Math.PI / 2));
+        // sprite spans the arrow plus the outline; origin is the player's centre
+        int pad = 3;
+        int w = (int)Math.ceil(arrowLength) + pad * 2;
+        int h = (int)Math.ceil(arrowWidth) * 2 + pad * 2;
+        arrowOriginX = pad - radius;
+        arrowOriginY = h / 2;
 
-        int baseX2 = innerX + (int)(arrowWidth * Math.cos(coneRad - Math.PI / 2));
-        int baseY2 = innerY + (int)(arrowWidth * Math.sin(coneRad - Math.PI / 2));
-
-        Polygon arrowHead = new Polygon();
-        arrowHead.addPoint(tipX, tipY);
-        arrowHead.addPoint(baseX1, baseY1);
-        arrowHead.addPoint(baseX2, baseY2);
+        int innerX = pad, innerY = h / 2;
+        int tipX = innerX + (int)arrowLength, tipY = innerY;
+        int baseY1 = innerY + (int)arrowWidth;
+        int baseY2 = innerY - (int)arrowWidth;
 
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = img.createGraphics();
         // Shading halves for 3D look
-        Polygon leftHalf = new Polygon();
-        leftHalf.addPoint(tipX, tipY);
-        leftHalf.addPoint(baseX1, baseY1);
-        leftHalf.addPoint(innerX, innerY);
-
-        Polygon rightHalf = new Polygon();
-        rightHalf.addPoint(tipX, tipY);
-        rightHalf.addPoint(baseX2, baseY2);
-        rightHalf.addPoint(innerX, innerY);
-
-        Color light, dark;
-        switch (currentGun) {
-            case TRIANGLE: light = new Color(255, 200, 160); dark = new Color(120, 40, 0); break;
-            case SQUARE:   light = new Color(150, 240, 255); dark = new Color(0, 60, 160); break;
-            case SINE:     light = new Color(180, 255, 180); dark = new Color(0, 100, 40); break;
-            default:       light = new Color(220, 255, 255); dark = new Color(0, 80, 120); break;
-        }
-
-        g2.setColor(light);
-        g2.fillPolygon(leftHalf);
-        g2.setColor(dark);
-        g2.fillPolygon(rightHalf);
-
-        g2.setColor(Color.BLACK);
-        g2.setStroke(new BasicStroke(2));
-        g2.drawPolygon(arrowHead);
-
-        // HUD for offset
-        g2.setColor(Color.WHITE);
-        g2.drawString("Offset: " + String.format("%.2f", offsetAmt), 200, 20);
+        g.setColor(ARROW_LIGHT[gun]);
+        g.fillPolygon(new int[] { tipX, innerX, innerX }, new int[] { tipY, baseY1, innerY }, 3);
+        g.setColor(ARROW_DARK[gun]);
+        g.fillPolygon(new int[] { tipX, innerX, innerX }, new int[] { tipY, baseY2, innerY }, 3);
+
+        g.setColor(Color.BLACK);
+        g.setStroke(OUTLINE);
+        g.drawPolygon(new int[] { tipX, innerX, innerX }, new int[] { tipY, baseY1, baseY2 }, 3);
+        g.dispose();
+        return img;
     }
-}
\ No newline at end of file
+}
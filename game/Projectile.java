@@ -4,6 +4,7 @@ import java.awt.*;
 
 public class Projectile {
     int x, y;           // current position
+    int prevX, prevY;   // position at the start of the tick
     int size = 10;      // size of projectile
     double dx, dy, radius = 6;      // velocity
     Color color;        // color based on gun
@@ -22,6 +23,8 @@ public class Projectile {
     public double getDx() { return dx; }
     public double getDy() { return dy; }
     public double getRadius() { return radius; }
+    public double getAngle() { return angle; }
+    public double getOffsetAmt() { return offsetAmt; }
     public boolean isAlive() { return alive; }
     public void kill() { alive = false; }
 
@@ -30,33 +33,31 @@ public class Projectile {
     public Player.GunType getGunType() { return gunType; }
 
     public Projectile(int x, int y, double angle, Player.GunType gun, double offsetAmt) {
+        init(x, y, angle, gun, offsetAmt);
+    }
+
+    // Blank instance for ProjectilePool; filled by init() / initShard()
+    Projectile() {
+    }
+
+    // (Re)initialise as a freshly fired round
+    void init(int x, int y, double angle, Player.GunType gun, double offsetAmt) {
         this.x = x;
         this.y = y;
+        prevX = x;
+        prevY = y;
         this.angle = angle;   // <--- save it
         this.offsetAmt = offsetAmt;   // store it
         this.gunType = gun;  
         double speed = 6.0;
         dx = speed * Math.cos(angle);
         dy = speed * Math.sin(angle);
+        radius = 6;
+        alive = true;
+        pierceCount = 0;
 
-        
-        switch (gun) {
-            case TRIANGLE:
-                color = new Color(255, 80, 40);
-                type = "TRIANGLE";
-                break;
-            case SQUARE:
-                color = new Color(40, 160, 255);
-                type = "SQUARE";
-                break;
-            case SINE:
-                color = new Color(80, 255, 120);
-                type = "SINE";
-                break;
-            default:
-                color = Color.WHITE;
-                type = "CIRCLE";
-        }
+        color = colorFor(gun);
+        type = gun.name();
     }
     
     public void update() {
@@ -70,106 +71,144 @@ public class Projectile {
     
  // Overloaded constructor used for shards / programmatic spawns
     public Projectile(double x, double y, double vx, double vy, double radius, Player.GunType gun) {
+        initShard(x, y, vx, vy, radius, gun);
+    }
+
+    // (Re)initialise as a shard / programmatic spawn
+    void initShard(double x, double y, double vx, double vy, double radius, Player.GunType gun) {
         this.x = (int)x;
         this.y = (int)y;
+        prevX = this.x;
+        prevY = this.y;
         this.dx = vx;
         this.dy = vy;
         this.radius = radius;
         this.gunType = gun;
+        angle = 0;
+        offsetAmt = 0;
+        alive = true;
+        pierceCount = 0;
 
-        switch (gun) {
-            case TRIANGLE: color = new Color(255, 80, 40);  type = "TRIANGLE"; break;
-            case SQUARE:   color = new Color(40, 160, 255); type = "SQUARE";   break;
-            case SINE:     color = new Color(80, 255, 120); type = "SINE";     break;
-            default:       color = Color.WHITE;             type = "CIRCLE";
-        }
+        color = colorFor(gun);
+        type = gun.name();
     }
 
     
- // Factory for SQUARE shrapnel
-    public static Projectile childShard(double startX, double startY, double vx, double vy, double radius) {
-        return new Projectile(startX, startY, vx, vy, radius, Player.GunType.SQUARE);
-    }
+    static final Color TRIANGLE_COLOR = new Color(255, 80, 40);
+    static final Color SQUARE_COLOR   = new Color(40, 160, 255);
+    static final Color SINE_COLOR     = new Color(80, 255, 120);
 
-    
-    public void draw(Graphics2D g2) {
-        g2.setColor(color);
+    static Color colorFor(Player.GunType gun) {
+        if (gun == null) return Color.WHITE;
+        switch (gun) {
+            case TRIANGLE: return TRIANGLE_COLOR;
+            case SQUARE:   return SQUARE_COLOR;
+            case SINE:     return SINE_COLOR;
+            default:       return Color.WHITE;
+        }
+    }
 
-        switch (type) {
-        case "TRIANGLE":
-            for (int i = 0; i < 15; i++) {
-                int px = (int)(x - i * 2 * Math.cos(angle));
-                int py = (int)(y - i * 2 * Math.sin(angle));
+    // Trail shapes. Each trail is 15 points stepping 2 px back along the flight
+    // direction, pushed sideways by a wave that only depends on the gun, offsetAmt
+    // and the wave phase at the head, so the sideways offsets are precomputed per
+    // gun, offsetAmt bucket and phase bucket. Drawing just rotates them by the
+    // projectile's angle: two trig calls per projectile instead of ~75.
+    static final int TRAIL = 15;
+    static final int PHASES = 32;                    // phase buckets per wave cycle
+    static final double OFFSET_STEP = 0.05;          // offsetAmt bucket width
+    static final int OFFSETS = (int)Math.round(3.0 / OFFSET_STEP) + 1;   // offsetAmt 0 .. 3
+    // [gun][(offsetBucket * PHASES + phaseBucket) * TRAIL + i] = sideways offset in px
+    private static final byte[][] TRAILS = buildTrails();
+
+    private static byte[][] buildTrails() {
+        Player.GunType[] guns = Player.GunType.values();
+        byte[][] trails = new byte[guns.length][OFFSETS * PHASES * TRAIL];
+        for (Player.GunType gun : guns) {
+            byte[] t = trails[gun.ordinal()];
+            for (int ob = 0; ob < OFFSETS; ob++) {
+                double offsetAmt = ob * OFFSET_STEP;
+                for (int pb = 0; pb < PHASES; pb++) {
+                    double head = pb * 2 * Math.PI / PHASES;
+                    for (int i = 0; i < TRAIL; i++) {
+                        t[(ob * PHASES + pb) * TRAIL + i] = (byte) waveOffset(gun, head, i, offsetAmt);
+                    }
+                }
+            }
+        }
+        return trails;
+    }
 
+    // sideways offset of trail point i, for a wave whose phase at the head is head
+    private static int waveOffset(Player.GunType gun, double head, int i, double offsetAmt) {
+        switch (gun) {
+            case TRIANGLE: {
                 // Triangle wave using sawtooth formula
-                double phase = ((x + y + i) * 0.2) % (2 * Math.PI);
+                double phase = (head + i * 0.2) % (2 * Math.PI);
                 double triVal = 2 * Math.abs((phase / Math.PI) - 1) - 1; // range -1..1
-
-                int offset = (int)(triVal * offsetAmt * 8);
-
-                int ox = (int)(offset * Math.cos(angle + Math.PI / 2));
-                int oy = (int)(offset * Math.sin(angle + Math.PI / 2));
-
-                g2.fillRect(px + ox, py + oy, 3, 3);
+                return (int)(triVal * offsetAmt * 8);
             }
-            break;
-
-        
-        case "SQUARE":
-            int prevX = 0, prevY = 0;
-            boolean hasPrev = false;
-
-            for (int i = 0; i < 15; i++) {
-                // Travel along projectile direction
-                int px = (int)(x - i * 2 * Math.cos(angle));
-                int py = (int)(y - i * 2 * Math.sin(angle));
-
+            case SQUARE: {
                 // Square wave value: +1 or -1
-                double phase = (x + y + i) * 0.2;
-                int squareVal = (Math.sin(phase) >= 0) ? 1 : -1;
-                int offset = (int)(squareVal * (offsetAmt * .5 * 10));
-
-                // Apply perpendicular offset
-                int ox = (int)(offset * Math.cos(angle + Math.PI / 2));
-                int oy = (int)(offset * Math.sin(angle + Math.PI / 2));
-
-                int drawX = px + ox;
-                int drawY = py + oy;
-
-                if (hasPrev) {
-                    // Connect to previous point so vertical jumps are drawn
-                    g2.drawLine(prevX, prevY, drawX, drawY);
-                }
-
-                g2.fillRect(drawX, drawY, 3, 3);
-
-                prevX = drawX;
-                prevY = drawY;
-                hasPrev = true;
+                int squareVal = (Math.sin(head + i * 0.2) >= 0) ? 1 : -1;
+                return (int)(squareVal * (offsetAmt * .5 * 10));
             }
-            break;
-
-          
-        case "SINE":
-            for (int i = 0; i < 15; i++) {
-                // Wave starts at current moving position
-                int px = (int)(x - i * 2 * Math.cos(angle));
-                int py = (int)(y - i * 2 * Math.sin(angle));
-
-                // Offset perpendicular to direction
-                int offset = (int)(Math.sin((x + y + i) * offsetAmt) * 14);
-
-                int ox = (int)(offset * Math.cos(angle + Math.PI/2));
-                int oy = (int)(offset * Math.sin(angle + Math.PI/2));
+            case SINE:
+                return (int)(Math.sin(head + i * offsetAmt) * 14);
+            default:
+                return 0;
+        }
+    }
 
-                g2.fillOval(px + ox, py + oy, 3, 3);
-            }
-            break;
+    // wave phase at the head: position-dependent so neighbouring shots don't line up
+    private static int phaseBucket(double phase) {
+        double turns = phase / (2 * Math.PI);
+        return (int)((turns - Math.floor(turns)) * PHASES) & (PHASES - 1);
+    }
 
+    // Draws a projectile from its render-snapshot fields (see RenderSnapshot)
+    public static void draw(Graphics2D g2, int x, int y, double angle, double offsetAmt, Player.GunType gun) {
+        draw(g2, x, y, angle, offsetAmt, gun, 1);
+    }
 
-        default:
+    // trailStep > 1 draws every trailStep-th trail point: same length, fewer segments
+    public static void draw(Graphics2D g2, int x, int y, double angle, double offsetAmt, Player.GunType gun,
+                            int trailStep) {
+        g2.setColor(colorFor(gun));
+        if (gun == null) {
+            final int size = 10;
             g2.fillOval(x - size / 2, y - size / 2, size, size);
-    }
+            return;
+        }
 
+        int ob = (int)Math.round(offsetAmt / OFFSET_STEP);
+        ob = ob < 0 ? 0 : (ob >= OFFSETS ? OFFSETS - 1 : ob);
+        double phase = gun == Player.GunType.SINE ? (x + y) * ob * OFFSET_STEP : (x + y) * 0.2;
+        byte[] trail = TRAILS[gun.ordinal()];
+        int base = (ob * PHASES + phaseBucket(phase)) * TRAIL;
+
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        int prevX = 0, prevY = 0;
+        for (int i = 0; i < TRAIL; i += trailStep) {
+            int offset = trail[base + i];
+            // back along the direction of travel, then sideways (angle + 90 degrees)
+            int drawX = (int)(x - i * 2 * cos) + (int)(-offset * sin);
+            int drawY = (int)(y - i * 2 * sin) + (int)(offset * cos);
+
+            switch (gun) {
+                case TRIANGLE:
+                    g2.fillRect(drawX, drawY, 3, 3);
+                    break;
+                case SQUARE:
+                    // Connect to previous point so vertical jumps are drawn
+                    if (i > 0) g2.drawLine(prevX, prevY, drawX, drawY);
+                    g2.fillRect(drawX, drawY, 3, 3);
+                    break;
+                case SINE:
+                    g2.fillOval(drawX, drawY, 3, 3);
+                    break;
+            }
+            prevX = drawX;
+            prevY = drawY;
+        }
     }
 }
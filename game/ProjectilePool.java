@@ -0,0 +1,48 @@
+package game;
+
+/**
+ * Fixed-capacity projectile store. All instances are allocated up front and
+ * recycled: live projectiles are packed into [0, size()), spawning reuses the
+ * slot just past the end and removal swaps the last live projectile into the
+ * hole, so firing and culling are O(1) and allocate nothing.
+ * Iteration order is not stable across removals.
+ */
+public class ProjectilePool {
+    private final Projectile[] items;
+    private int count;
+
+    public ProjectilePool(int capacity) {
+        items = new Projectile[capacity];
+        for (int i = 0; i < capacity; i++) items[i] = new Projectile();
+    }
+
+    public int size() { return count; }
+    public int capacity() { return items.length; }
+    public Projectile get(int i) { return items[i]; }
+
+    /** Spawn a fired round; returns null if the pool is full. */
+    public Projectile fire(int x, int y, double angle, Player.GunType gun, double offsetAmt) {
+        if (count == items.length) return null;
+        Projectile p = items[count++];
+        p.init(x, y, angle, gun, offsetAmt);
+        return p;
+    }
+
+    /** Spawn SQUARE shrapnel; returns null if the pool is full. */
+    public Projectile shard(double x, double y, double vx, double vy, double radius) {
+        if (count == items.length) return null;
+        Projectile p = items[count++];
+        p.initShard(x, y, vx, vy, radius, Player.GunType.SQUARE);
+        return p;
+    }
+
+    /** Remove the projectile at i by moving the last live one into its slot. */
+    public void removeAt(int i) {
+        int last = --count;
+        Projectile dead = items[i];
+        items[i] = items[last];
+        items[last] = dead;
+    }
+
+    public void clear() { count = 0; }
+}
@@ -0,0 +1,95 @@
+package game;
+
+/**
+ * Trades render quality for frame time. Fed how long each frame kept the game
+ * thread busy (ticks, paint and present) against the frame budget, it judges
+ * every {@link #WINDOW} frames and steps one level down when too many frames
+ * ran close to the budget, or one level up after several windows with plenty
+ * of headroom.
+ *
+ * The gap between the two thresholds, and needing more good windows to step up
+ * than bad ones to step down, keep it from flip-flopping. When a step up is
+ * undone by the very next window, the wait before the next try doubles.
+ *
+ * Level 0 is full quality; the per-level settings are the tables below.
+ * Game thread only, apart from {@link #enabled}.
+ */
+public class QualityGovernor {
+    public static final int LEVELS = 5;
+
+    // per level, 0 (full) .. LEVELS - 1
+    private static final int[] PUFFS        = { 28, 22, 16, 12, 8 };          // per ring (see Particles)
+    private static final int[] TRAIL_STEP   = { 1, 1, 2, 2, 3 };              // every n-th trail point
+    private static final boolean[] SMOOTH   = { true, true, true, false, false }; // filtered blits, AA text
+    private static final boolean[] GLOW     = { true, true, false, false, false }; // black hole ambient glow
+    private static final int[] STAR_DENSITY = { 256, 256, 192, 128, 80 };     // of 256 stars drawn
+    private static final float[] RENDER_SCALE = { 1f, 1f, 0.85f, 0.7f, 0.5f }; // see Renderer.renderScale
+
+    static final int WINDOW = 30;                 // frames per judgement
+    private static final double HIGH = 0.85;      // a frame this close to the budget is slow
+    private static final double LOW = 0.5;        // one under this had headroom
+    private static final int SLOW_FRAMES = WINDOW / 4;     // this many slow frames: step down
+    private static final int UP_AFTER = 4;                 // good windows before stepping up
+    private static final int UP_AFTER_MAX = 64;
+
+    volatile boolean enabled = true;              // off: full quality, no adjusting
+
+    private int level;
+    private int frames, slow, busy;               // this window: frames seen, slow ones, ones without headroom
+    private int goodWindows;
+    private int upAfter = UP_AFTER;
+    private boolean justStepped;                  // last window ended in a step up
+
+    public int level() { return enabled ? level : 0; }
+
+    public int puffs()            { return PUFFS[level()]; }
+    public int trailStep()        { return TRAIL_STEP[level()]; }
+    public boolean smooth()       { return SMOOTH[level()]; }
+    public boolean glow()         { return GLOW[level()]; }
+    /** Stars out of every 256 to draw; see {@link #drawStar}. */
+    public int starDensity()      { return STAR_DENSITY[level()]; }
+    public float renderScale()    { return RENDER_SCALE[level()]; }
+
+    /**
+     * Whether star {@code i} is in the drawn subset at {@code density}. Hashing the
+     * index keeps the subset spread over the sky and the same from frame to frame.
+     */
+    static boolean drawStar(int i, int density) {
+        return density >= 256 || ((i * 0x9E3779B9) >>> 24) < density;
+    }
+
+    /** One frame that kept the game thread busy for {@code busyNs} out of {@code budgetNs}. */
+    public void sample(long busyNs, long budgetNs) {
+        if (!enabled) return;
+        if (busyNs > budgetNs * HIGH) slow++;
+        if (busyNs > budgetNs * LOW) busy++;
+        if (++frames < WINDOW) return;
+
+        int from = level;
+        if (slow >= SLOW_FRAMES) {
+            goodWindows = 0;
+            if (level < LEVELS - 1) {
+                // the step up did not hold: wait longer before trying again
+                upAfter = justStepped ? Math.min(UP_AFTER_MAX, upAfter * 2) : UP_AFTER;
+                level++;
+            }
+        } else if (busy <= WINDOW / 10 && level > 0 && ++goodWindows >= upAfter) {
+            goodWindows = 0;
+            level--;
+        } else if (busy > WINDOW / 10) {
+            goodWindows = 0;
+        }
+        justStepped = level < from;
+        frames = slow = busy = 0;
+
+        if (level != from) {
+            GameEvents.QualityChanged event = new GameEvents.QualityChanged();
+            if (event.isEnabled()) {
+                event.from = from;
+                event.to = level;
+                event.upAfter = upAfter;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Plain-array copy of everything the renderer needs from one simulation tick.
+ * Moving things carry their position at the start of the tick too ("prev"), so
+ * the renderer can draw anywhere between the two (see {@link Renderer#draw}).
+ * Filled by {@link World#writeSnapshot} on the game thread and handed to the
+ * renderer through a {@link SnapshotExchange}; the arrays are reused between
+ * ticks, so publishing a frame allocates nothing once they have grown.
+ */
+public class RenderSnapshot {
+    long tick = -1;
+
+    // player
+    int playerX, playerY, playerRadius;
+    int playerAngle;                   // degrees
+    double playerSpin;                 // radians
+    int playerPrevX, playerPrevY, playerPrevAngle;
+    double playerPrevSpin;
+    double playerOffset;
+    Player.GunType playerGun = Player.GunType.TRIANGLE;
+
+    // stars
+    int starCount;
+    double[] starX = new double[0], starY = new double[0];
+    double[] starPrevX = new double[0], starPrevY = new double[0];
+    float[] starSize = new float[0];
+    byte[] starPalette = new byte[0];
+
+    // projectiles
+    int projCount;
+    int[] projX = new int[0], projY = new int[0];
+    int[] projPrevX = new int[0], projPrevY = new int[0];
+    double[] projAngle = new double[0], projOffset = new double[0];
+    byte[] projGun = new byte[0];
+
+    // black holes
+    int holeCount;
+    double[] holeX = new double[0], holeY = new double[0], holeR = new double[0];
+    double[] holePrevX = new double[0], holePrevY = new double[0], holePrevR = new double[0];
+    int[] holeFlashAlpha = new int[0], holeFlashTimer = new int[0], holeGlowAlpha = new int[0];
+
+    // particles: rings, then the rest, each oldest first (see Particles)
+    int partCount;
+    byte[] partKind = new byte[0];
+    double[] partX = new double[0], partY = new double[0];
+    double[] partPrevX = new double[0], partPrevY = new double[0];
+    float[] partSize = new float[0], partPrevSize = new float[0];
+    int[] partAlpha = new int[0];
+
+    // latched World.tickStats / tickAlloc summaries, for the stats overlay
+    final long[] tickTimes = new long[(World.TICK_PHASES.length + 1) * 3];
+    final long[] tickAlloc = new long[(World.TICK_PHASES.length + 1) * 2];
+
+    void ensureStars(int n) {
+        if (starX.length >= n) return;
+        int cap = grow(starX.length, n);
+        starX = Arrays.copyOf(starX, cap);
+        starY = Arrays.copyOf(starY, cap);
+        starPrevX = Arrays.copyOf(starPrevX, cap);
+        starPrevY = Arrays.copyOf(starPrevY, cap);
+        starSize = Arrays.copyOf(starSize, cap);
+        starPalette = Arrays.copyOf(starPalette, cap);
+    }
+
+    void ensureProjectiles(int n) {
+        if (projX.length >= n) return;
+        int cap = grow(projX.length, n);
+        projX = Arrays.copyOf(projX, cap);
+        projY = Arrays.copyOf(projY, cap);
+        projPrevX = Arrays.copyOf(projPrevX, cap);
+        projPrevY = Arrays.copyOf(projPrevY, cap);
+        projAngle = Arrays.copyOf(projAngle, cap);
+        projOffset = Arrays.copyOf(projOffset, cap);
+        projGun = Arrays.copyOf(projGun, cap);
+    }
+
+    void ensureHoles(int n) {
+        if (holeX.length >= n) return;
+        int cap = grow(holeX.length, n);
+        holeX = Arrays.copyOf(holeX, cap);
+        holeY = Arrays.copyOf(holeY, cap);
+        holeR = Arrays.copyOf(holeR, cap);
+        holePrevX = Arrays.copyOf(holePrevX, cap);
+        holePrevY = Arrays.copyOf(holePrevY, cap);
+        holePrevR = Arrays.copyOf(holePrevR, cap);
+        holeFlashAlpha = Arrays.copyOf(holeFlashAlpha, cap);
+        holeFlashTimer = Arrays.copyOf(holeFlashTimer, cap);
+        holeGlowAlpha = Arrays.copyOf(holeGlowAlpha, cap);
+    }
+
+    void ensureParticles(int n) {
+        if (partX.length >= n) return;
+        int cap = grow(partX.length, n);
+        partKind = Arrays.copyOf(partKind, cap);
+        partX = Arrays.copyOf(partX, cap);
+        partY = Arrays.copyOf(partY, cap);
+        partPrevX = Arrays.copyOf(partPrevX, cap);
+        partPrevY = Arrays.copyOf(partPrevY, cap);
+        partSize = Arrays.copyOf(partSize, cap);
+        partPrevSize = Arrays.copyOf(partPrevSize, cap);
+        partAlpha = Arrays.copyOf(partAlpha, cap);
+    }
+
+    private static int grow(int cap, int needed) {
+        return Math.max(needed, Math.max(16, cap + (cap >> 1)));
+    }
+}
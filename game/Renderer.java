@@ -0,0 +1,346 @@
+package game;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.VolatileImage;
+
+/**
+ * Draws a {@link RenderSnapshot}. Never touches live world objects, so it can run
+ * on any thread while the simulation keeps stepping.
+ */
+public class Renderer {
+    private static final Player.GunType[] GUNS = Player.GunType.values();
+
+    // paint phases timed by paintStats (see FrameStats); present is the upscale blit
+    // plus, when the caller reports it through presented(), the buffer flip
+    static final int P_STARS = 0, P_PLAYER = 1, P_PROJECTILES = 2, P_HOLES = 3, P_HUD = 4, P_PARTICLES = 5, P_PRESENT = 6;
+    static final String[] PAINT_PHASES = { "stars", "player", "projectiles", "holes", "hud", "particles", "present" };
+    final AllocationStats paintAlloc = new AllocationStats("paint", PAINT_PHASES);
+    final FrameStats paintStats = new FrameStats(paintAlloc, PAINT_PHASES);
+    final FrameStats frameStats = new FrameStats();   // time between draw() calls
+    private long lastFrame;
+
+    volatile boolean showStats;                       // F3 overlay; F4 adds allocations
+    private static final Font STATS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color STATS_BG = new Color(0, 0, 0, 170);
+    // HUD and overlay text is built here and drawn from lineChars, so no String per line
+    private final StringBuilder line = new StringBuilder(80);
+    private char[] lineChars = new char[80];
+
+    // stars (lensed) and particles, rasterised in bands on the common pool, sized to the world's pixels
+    private final TiledBackground background = new TiledBackground();
+
+    // steps detail down when frames run long; fed by the game loop (see GamePanel.run)
+    final QualityGovernor quality = new QualityGovernor();
+
+    // Dynamic resolution: the world is drawn at renderScale of its on-screen size into
+    // worldLayer, then stretched onto the frame, and the HUD goes on top at full
+    // resolution. When the scale works out to 1 the world is drawn straight onto the frame.
+    volatile float renderScale;                       // 0.5 .. 1, or 0 to let the governor choose
+    // AUTO filters the upscale only when worldLayer is accelerated: on the software
+    // pipeline a bilinear stretch costs more than drawing at full size would save
+    static final int UPSCALE_AUTO = 0, UPSCALE_NEAREST = 1, UPSCALE_BILINEAR = 2;
+    volatile int upscale = UPSCALE_AUTO;
+    private VolatileImage worldLayer;
+
+    // interpolation: fraction of the way from the snapshot's prev state to its current one
+    private double alpha = 1;
+    static final double TELEPORT = 64;    // further than this in one tick = wrapped / respawned
+    private double[] holeX = new double[0], holeY = new double[0], holeR = new double[0];
+
+    // HUD offset label, rebuilt only when the shown value changes
+    private String offsetLabel;
+    private long offsetLabelKey = Long.MIN_VALUE;
+
+    public void draw(Graphics2D g2, RenderSnapshot s) {
+        draw(g2, s, 1);
+    }
+
+    public void draw(Graphics2D g2, RenderSnapshot s, double alpha) {
+        draw(g2, s, alpha, World.WIDTH, World.HEIGHT);
+    }
+
+    /** Scale that fits the world into a {@code w} x {@code h} frame, keeping its aspect. */
+    static double presentScale(int w, int h) {
+        return Math.min((double) w / World.WIDTH, (double) h / World.HEIGHT);
+    }
+
+    /** Letterbox margin before the world along an axis {@code frame} px long. */
+    static int presentOffset(int frame, int world, double fit) {
+        return (frame - (int)Math.round(world * fit)) / 2;
+    }
+
+    /**
+     * Draw the state {@code alpha} of the way through the snapshot's tick (0 is
+     * where everything was when the tick started, 1 where it ended up) onto a
+     * {@code frameW} x {@code frameH} frame, the world scaled to fit and centred.
+     */
+    public void draw(Graphics2D g2, RenderSnapshot s, double alpha, int frameW, int frameH) {
+        paint(g2, s, alpha, frameW, frameH);
+        paintStats.end();
+    }
+
+    /**
+     * As {@link #draw}, but leaves the paint timing open so the caller can charge
+     * showing the frame to it: pass the returned timestamp to {@link #presented}.
+     */
+    public long paint(Graphics2D g2, RenderSnapshot s, double alpha, int frameW, int frameH) {
+        long t = paintStats.begin();
+        this.alpha = alpha;
+        interpolateHoles(s);
+        if (lastFrame != 0) frameStats.sample(t - lastFrame);
+        lastFrame = t;
+
+        double fit = presentScale(frameW, frameH);
+        int pw = (int)Math.round(World.WIDTH * fit), ph = (int)Math.round(World.HEIGHT * fit);
+        int ox = presentOffset(frameW, World.WIDTH, fit), oy = presentOffset(frameH, World.HEIGHT, fit);
+        float rs = renderScale > 0 ? renderScale : quality.renderScale();
+        int iw = Math.max(1, Math.round(pw * rs)), ih = Math.max(1, Math.round(ph * rs));
+        double scale = (double) iw / World.WIDTH;
+
+        if (ox > 0 || oy > 0) {
+            g2.setColor(Color.BLACK);
+            g2.fillRect(0, 0, frameW, oy);
+            g2.fillRect(0, oy + ph, frameW, frameH - oy - ph);
+            g2.fillRect(0, oy, ox, ph);
+            g2.fillRect(ox + pw, oy, frameW - ox - pw, ph);
+        }
+        if (iw == pw && ih == ph) {
+            t = drawWorld(g2, s, scale, ox, oy, t);
+        } else {
+            GraphicsConfiguration gc = g2.getDeviceConfiguration();
+            // redrawn every frame, so a lost surface only needs another pass
+            do {
+                if (worldLayer == null || worldLayer.getWidth() != iw || worldLayer.getHeight() != ih
+                        || worldLayer.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    if (worldLayer != null) worldLayer.flush();
+                    worldLayer = gc.createCompatibleVolatileImage(iw, ih, Transparency.OPAQUE);
+                }
+                Graphics2D wg = worldLayer.createGraphics();
+                t = drawWorld(wg, s, scale, 0, 0, t);
+                wg.dispose();
+            } while (worldLayer.contentsLost());
+            boolean bilinear = upscale == UPSCALE_AUTO ? worldLayer.getCapabilities().isAccelerated()
+                                                       : upscale == UPSCALE_BILINEAR;
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, bilinear
+                    ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+            g2.drawImage(worldLayer, ox, oy, ox + pw, oy + ph, 0, 0, iw, ih, null);
+            t = paintStats.lap(P_PRESENT, t);
+        }
+
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, quality.smooth()
+                ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        long offsetKey = Math.round(s.playerOffset * 100);
+        if (offsetKey != offsetLabelKey) {
+            offsetLabel = "Offset: " + String.format("%.2f", s.playerOffset);
+            offsetLabelKey = offsetKey;
+        }
+        g2.setColor(Color.WHITE);
+        g2.drawString(offsetLabel, ox + 20, oy + 20);
+
+        // Debug HUD
+        long frameNs = frameStats.get(frameStats.totalRow(), FrameStats.P50);
+        g2.setColor(Color.WHITE);
+        line.setLength(0);
+        line.append("FPS: ").append(frameNs > 0 ? Math.round(1e9 / frameNs) : 0);
+        drawLine(g2, ox + 20, oy + 40);
+        line.setLength(0);
+        line.append("Gun Angle: ").append(s.playerAngle).append('°');
+        drawLine(g2, ox + 20, oy + 60);
+        line.setLength(0);
+        line.append("Projectiles: ").append(s.projCount);
+        drawLine(g2, ox + 20, oy + 80);
+        t = paintStats.lap(P_HUD, t);
+
+        if (showStats || paintAlloc.enabled) {
+            drawStats(g2, s, ox + pw, oy, iw, ih);
+            t = paintStats.skip(t);     // the overlay is not part of what it shows
+        }
+        return t;
+    }
+
+    /** The frame {@link #paint} drew has been shown; {@code t} is what it returned. */
+    public void presented(long t) {
+        paintStats.lap(P_PRESENT, t);
+        paintStats.end();
+    }
+
+    // Everything below the HUD, into g at (x, y), world units scaled to pixels by scale.
+    // Returns the paintStats lap time.
+    private long drawWorld(Graphics2D g, RenderSnapshot s, double scale, int x, int y, long t) {
+        // shrunk sprites are filtered by the upscale anyway, and unfiltered scaled
+        // blits are several times cheaper on the software pipeline
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, quality.smooth() && scale >= 1
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+
+        // background; the workers draw the particles too, composited after the holes
+        background.render(s, alpha, scale, holeX, holeY, holeR, quality);
+        background.drawStars(g, x, y);
+        t = paintStats.lap(P_STARS, t);
+
+        AffineTransform frame = g.getTransform();
+        g.translate(x, y);
+        if (scale != 1) g.scale(scale, scale);
+        Player.draw(g, lerp(s.playerPrevX, s.playerX), lerp(s.playerPrevY, s.playerY), s.playerRadius,
+                    (int)Math.round(s.playerPrevAngle + alpha * wrap(s.playerAngle - s.playerPrevAngle, 360)),
+                    s.playerPrevSpin + alpha * wrap(s.playerSpin - s.playerPrevSpin, Math.PI * 2),
+                    s.playerOffset, s.playerGun);
+        t = paintStats.lap(P_PLAYER, t);
+        int trailStep = quality.trailStep();
+        for (int i = 0; i < s.projCount; i++) {
+            Projectile.draw(g, lerp(s.projPrevX[i], s.projX[i]), lerp(s.projPrevY[i], s.projY[i]),
+                            s.projAngle[i], s.projOffset[i], GUNS[s.projGun[i]], trailStep);
+        }
+        t = paintStats.lap(P_PROJECTILES, t);
+        // covers stars and projectiles behind
+        boolean glow = quality.glow();
+        for (int i = 0; i < s.holeCount; i++) {
+            BlackHole.draw(g, holeX[i], holeY[i], holeR[i],
+                           s.holeFlashAlpha[i], s.holeFlashTimer[i], glow ? s.holeGlowAlpha[i] : 0);
+        }
+        t = paintStats.lap(P_HOLES, t);
+        g.setTransform(frame);
+        background.drawParticles(g, x, y);
+        return paintStats.lap(P_PARTICLES, t);
+    }
+
+    private void interpolateHoles(RenderSnapshot s) {
+        int n = s.holeCount;
+        if (holeX.length < n) {
+            holeX = new double[s.holeX.length];
+            holeY = new double[s.holeX.length];
+            holeR = new double[s.holeX.length];
+        }
+        for (int i = 0; i < n; i++) {
+            holeX[i] = s.holePrevX[i] + (s.holeX[i] - s.holePrevX[i]) * alpha;
+            holeY[i] = s.holePrevY[i] + (s.holeY[i] - s.holePrevY[i]) * alpha;
+            holeR[i] = s.holePrevR[i] + (s.holeR[i] - s.holePrevR[i]) * alpha;
+        }
+    }
+
+    private int lerp(int prev, int cur) {
+        return (int)Math.round(prev + (cur - prev) * alpha);
+    }
+
+    // d folded into [-period / 2, period / 2), so angles turn the short way round
+    private static double wrap(double d, double period) {
+        d %= period;
+        if (d >= period / 2) d -= period;
+        else if (d < -period / 2) d += period;
+        return d;
+    }
+
+    // p50 / p99 / max of the last full window for frame, update and paint phases,
+    // then average / max bytes allocated per tick and per paint when those are on
+    // right, top: corner of the world on the frame; iw x ih: the world's render size
+    private void drawStats(Graphics2D g2, RenderSnapshot s, int right, int top, int iw, int ih) {
+        int updateRows = World.TICK_PHASES.length + 1;
+        boolean alloc = paintAlloc.enabled;
+        int rows = (showStats ? 1 + updateRows + paintStats.rows() : 0) + 2
+                 + (alloc ? updateRows + paintAlloc.rows() : 0);
+        int lineH = 14, x = right - 430, y = top + 10;
+
+        Font oldFont = g2.getFont();
+        g2.setColor(STATS_BG);
+        g2.fillRect(x - 8, y, 430, rows * lineH + 12);
+        g2.setFont(STATS_FONT);
+        g2.setColor(Color.WHITE);
+        y += lineH;
+
+        if (showStats) y = drawTimes(g2, s, x, y);
+        if (alloc) y = drawAllocations(g2, s, x, y);
+
+        line.setLength(0);
+        line.append("stars ").append(s.starCount).append("  projectiles ").append(s.projCount)
+            .append("  holes ").append(s.holeCount).append("  particles ").append(s.partCount)
+            .append("  quality ").append(quality.level());
+        if (!quality.enabled) line.append(" (fixed)");
+        drawLine(g2, x, y);
+        line.setLength(0);
+        line.append("world ").append(iw).append('x').append(ih)
+            .append(renderScale > 0 ? " (fixed scale)" : " (auto scale)");
+        drawLine(g2, x, y + lineH);
+        g2.setFont(oldFont);
+    }
+
+    private void drawLine(Graphics2D g2, int x, int y) {
+        int n = line.length();
+        if (lineChars.length < n) lineChars = new char[n * 2];
+        line.getChars(0, n, lineChars, 0);
+        g2.drawChars(lineChars, 0, n, x, y);
+    }
+
+    private int drawTimes(Graphics2D g2, RenderSnapshot s, int x, int y) {
+        int updateRows = World.TICK_PHASES.length + 1;
+        int total = frameStats.totalRow();
+        y = statsLine(g2, x, y, false, "frame", frameStats.get(total, FrameStats.P50),
+                      frameStats.get(total, FrameStats.P99), frameStats.get(total, FrameStats.MAX));
+        for (int r = updateRows - 1; r >= 0; r--) {   // total first, then the phases
+            boolean phase = r < updateRows - 1;
+            y = statsLine(g2, x, y, phase, phase ? World.TICK_PHASES[r] : "update", s.tickTimes[r * 3 + FrameStats.P50],
+                          s.tickTimes[r * 3 + FrameStats.P99], s.tickTimes[r * 3 + FrameStats.MAX]);
+        }
+        for (int r = paintStats.rows() - 1; r >= 0; r--) {
+            boolean phase = r != paintStats.totalRow();
+            y = statsLine(g2, x, y, phase, phase ? paintStats.name(r) : "paint", paintStats.get(r, FrameStats.P50),
+                          paintStats.get(r, FrameStats.P99), paintStats.get(r, FrameStats.MAX));
+        }
+        return y;
+    }
+
+    private int drawAllocations(Graphics2D g2, RenderSnapshot s, int x, int y) {
+        int updateRows = World.TICK_PHASES.length + 1;
+        for (int r = updateRows - 1; r >= 0; r--) {
+            boolean phase = r < updateRows - 1;
+            y = allocLine(g2, x, y, phase, phase ? World.TICK_PHASES[r] : "alloc/tick",
+                          s.tickAlloc[r * 2 + AllocationStats.AVG], s.tickAlloc[r * 2 + AllocationStats.MAX]);
+        }
+        for (int r = paintAlloc.rows() - 1; r >= 0; r--) {
+            boolean phase = r != paintAlloc.totalRow();
+            y = allocLine(g2, x, y, phase, phase ? paintAlloc.name(r) : "alloc/paint",
+                          paintAlloc.get(r, AllocationStats.AVG), paintAlloc.get(r, AllocationStats.MAX));
+        }
+        return y;
+    }
+
+    private int allocLine(Graphics2D g2, int x, int y, boolean indent, String name, long avg, long max) {
+        line.setLength(0);
+        if (indent) line.append("  ");
+        line.append(name);
+        while (line.length() < 14) line.append(' ');
+        line.append("avg ").append(avg).append(" B");
+        while (line.length() < 34) line.append(' ');
+        line.append("max ").append(max).append(" B");
+        drawLine(g2, x, y);
+        return y + 14;
+    }
+
+    private int statsLine(Graphics2D g2, int x, int y, boolean indent, String name, long p50, long p99, long max) {
+        line.setLength(0);
+        if (indent) line.append("  ");
+        line.append(name);
+        while (line.length() < 14) line.append(' ');
+        line.append("p50 "); appendMs(p50);
+        line.append("  p99 "); appendMs(p99);
+        line.append("  max "); appendMs(max);
+        line.append(" ms");
+        drawLine(g2, x, y);
+        return y + 14;
+    }
+
+    // ns as a right-aligned "mm.hh" millisecond value, without String.format
+    private void appendMs(long ns) {
+        long hundredths = (ns + 5_000) / 10_000;
+        long whole = hundredths / 100;
+        int frac = (int)(hundredths % 100);
+        if (whole < 10) line.append(' ');
+        line.append(whole).append('.');
+        if (frac < 10) line.append('0');
+        line.append(frac);
+    }
+}
@@ -0,0 +1,37 @@
+package game;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free triple buffer between the simulation (single writer) and the
+ * renderer (single reader). The writer fills its private back buffer and swaps
+ * it into the shared slot; the reader swaps its front buffer for the shared one
+ * whenever a newer tick has been published. Neither side ever blocks or sees a
+ * buffer the other is writing.
+ */
+public class SnapshotExchange {
+    private final AtomicReference<RenderSnapshot> shared = new AtomicReference<>(new RenderSnapshot());
+    private volatile long publishedTick = -1;
+    private RenderSnapshot back = new RenderSnapshot();   // writer-owned
+    private RenderSnapshot front = new RenderSnapshot();  // reader-owned
+
+    /** Writer: the buffer to fill for the next publish. */
+    public RenderSnapshot back() {
+        return back;
+    }
+
+    /** Writer: hand the filled back buffer to the reader. */
+    public void publish() {
+        long tick = back.tick;
+        back = shared.getAndSet(back);
+        publishedTick = tick;
+    }
+
+    /** Reader: the newest published snapshot (or the last one, if nothing new). */
+    public RenderSnapshot acquire() {
+        if (publishedTick > front.tick) {
+            front = shared.getAndSet(front);
+        }
+        return front;
+    }
+}
@@ -0,0 +1,127 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Uniform grid over the play area that buckets black holes by the bounding box
+ * of a disk around each one. Rebuilt every tick (counting sort into one flat
+ * array, no per-cell lists), so queries only look at holes near the point being
+ * tested instead of every hole on the map.
+ *
+ * Holes are stored in ascending list order within each cell, so callers that
+ * scan a cell see holes in the same order as a plain loop over the list.
+ * Points outside the grid clamp to the border cells, which still hold every
+ * disk that reaches past the border.
+ */
+public class SpatialGrid {
+    private final double minX, minY, cellSize;
+    private final int cols, rows;
+
+    // cell c holds items[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] cursor;
+    private int[] items = new int[16];
+
+    // per-hole cell range from the last build
+    private int[] c0 = new int[4], c1 = new int[4], r0 = new int[4], r1 = new int[4];
+
+    // dedupe for multi-cell queries
+    private int[] stamp = new int[4];
+    private int stampGen = 0;
+
+    public SpatialGrid(double minX, double minY, double width, double height, double cellSize) {
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int)Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int)Math.ceil(height / cellSize));
+        this.cellStart = new int[cols * rows + 1];
+        this.cursor = new int[cols * rows];
+    }
+
+    private int col(double x) {
+        int c = (int)Math.floor((x - minX) / cellSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    private int row(double y) {
+        int r = (int)Math.floor((y - minY) / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    /** Index every hole by a disk of radius {@code radiusScale * R} around its centre. */
+    public void build(List<BlackHole> holes, double radiusScale) {
+        build(holes, radiusScale, 0);
+    }
+
+    /** As {@link #build(List, double)}, with the disk widened by {@code pad}. */
+    public void build(List<BlackHole> holes, double radiusScale, double pad) {
+        int n = holes.size();
+        if (c0.length < n) {
+            int cap = Math.max(n, c0.length * 2);
+            c0 = new int[cap]; c1 = new int[cap]; r0 = new int[cap]; r1 = new int[cap];
+            stamp = new int[cap];
+            stampGen = 0;
+        }
+
+        // pass 1: count entries per cell
+        Arrays.fill(cellStart, 0);
+        int total = 0;
+        for (int h = 0; h < n; h++) {
+            BlackHole bh = holes.get(h);
+            double reach = bh.getRadius() * radiusScale + pad;
+            c0[h] = col(bh.getX() - reach); c1[h] = col(bh.getX() + reach);
+            r0[h] = row(bh.getY() - reach); r1[h] = row(bh.getY() + reach);
+            for (int r = r0[h]; r <= r1[h]; r++) {
+                for (int c = c0[h]; c <= c1[h]; c++) cellStart[r * cols + c + 1]++;
+            }
+            total += (c1[h] - c0[h] + 1) * (r1[h] - r0[h] + 1);
+        }
+        for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+        if (items.length < total) items = new int[Math.max(total, items.length * 2)];
+
+        // pass 2: scatter hole indices; ascending h keeps each cell sorted
+        System.arraycopy(cellStart, 0, cursor, 0, cols * rows);
+        for (int h = 0; h < n; h++) {
+            for (int r = r0[h]; r <= r1[h]; r++) {
+                for (int c = c0[h]; c <= c1[h]; c++) items[cursor[r * cols + c]++] = h;
+            }
+        }
+    }
+
+    /** Cell holding (x, y); scan it with {@link #cellStart(int)} / {@link #cellEnd(int)}. */
+    public int cellAt(double x, double y) {
+        return row(y) * cols + col(x);
+    }
+
+    public int cellStart(int cell) { return cellStart[cell]; }
+    public int cellEnd(int cell) { return cellStart[cell + 1]; }
+    public int item(int k) { return items[k]; }
+
+    /**
+     * Collect every hole whose cells overlap the box around the circle (x, y, r),
+     * each at most once, into {@code out} (size it to the hole count).
+     * Returns how many were written. Not thread safe (shares the dedupe stamps).
+     */
+    public int query(double x, double y, double r, int[] out) {
+        int gen = ++stampGen;
+        if (gen == Integer.MAX_VALUE) { Arrays.fill(stamp, 0); stampGen = gen = 1; }
+
+        int n = 0;
+        int ca = col(x - r), cb = col(x + r), ra = row(y - r), rb = row(y + r);
+        for (int row = ra; row <= rb; row++) {
+            for (int c = ca; c <= cb; c++) {
+                int cell = row * cols + c;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int h = items[k];
+                    if (stamp[h] != gen) {
+                        stamp[h] = gen;
+                        out[n++] = h;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+}
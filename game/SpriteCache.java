@@ -0,0 +1,156 @@
+package game;
+
+import java.awt.AlphaComposite;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Pre-rendered images keyed by an int the caller packs from its buckets, with a
+ * memory budget and least-recently-used eviction. Lookups do not allocate
+ * (no boxed keys), so a hit costs a hash probe.
+ *
+ * Usage: {@code img = cache.get(key); if (img == null) cache.put(key, img = render(key));}
+ *
+ * Not thread safe; each cache belongs to the thread that renders with it. The one
+ * exception is {@link #peek}, which only reads, so other threads may share a cache
+ * through it while its owner leaves it alone.
+ */
+public class SpriteCache {
+    private final long maxBytes;
+    private final int maxEntries;
+
+    // open addressing, linear probing; table slots hold entry index + 1, 0 is empty
+    private final int[] table;
+    private final int mask;
+
+    private final int[] keys;
+    private final BufferedImage[] images; // null for a free entry
+    private final long[] lastUsed;
+    private int count;
+    private long bytes;
+    private long clock;
+    private long hits, misses, evictions;
+
+    // SRC_OVER at each 0..255 alpha, so fading a sprite in or out allocates nothing
+    private static final AlphaComposite[] ALPHA = new AlphaComposite[256];
+    static {
+        for (int a = 0; a < 256; a++) ALPHA[a] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a / 255f);
+    }
+
+    /** Shared SRC_OVER composite for an alpha in 0..255 (clamped). */
+    public static AlphaComposite alpha(int a) {
+        return ALPHA[a < 0 ? 0 : (a > 255 ? 255 : a)];
+    }
+
+    public SpriteCache(long maxBytes, int maxEntries) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        int tableSize = Integer.highestOneBit(Math.max(4, maxEntries * 2 - 1)) << 1;
+        table = new int[tableSize];
+        mask = tableSize - 1;
+        keys = new int[maxEntries];
+        images = new BufferedImage[maxEntries];
+        lastUsed = new long[maxEntries];
+    }
+
+    /** Cached image for {@code key}, or null. Marks it most recently used. */
+    public BufferedImage get(int key) {
+        int slot = find(key);
+        if (slot < 0) { misses++; return null; }
+        int e = table[slot] - 1;
+        lastUsed[e] = ++clock;
+        hits++;
+        return images[e];
+    }
+
+    /** Cached image for {@code key}, or null, leaving the LRU order and counters alone. */
+    public BufferedImage peek(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : images[table[slot] - 1];
+    }
+
+    /**
+     * Add an image, evicting least recently used ones until it fits the budget.
+     * An image bigger than the whole budget is not kept (and evicts nothing);
+     * returns whether it was.
+     */
+    public boolean put(int key, BufferedImage image) {
+        long size = sizeOf(image);
+        if (size > maxBytes) return false;
+        int slot = find(key);
+        if (slot >= 0) remove(slot);
+
+        while (count > 0 && (count == maxEntries || bytes + size > maxBytes)) evictOldest();
+
+        int e = 0;
+        while (images[e] != null) e++;
+        keys[e] = key;
+        images[e] = image;
+        lastUsed[e] = ++clock;
+        bytes += size;
+        count++;
+
+        int s = hash(key);
+        while (table[s] != 0) s = (s + 1) & mask;
+        table[s] = e + 1;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(images, null);
+        count = 0;
+        bytes = 0;
+    }
+
+    public int size() { return count; }
+    public long bytes() { return bytes; }
+    public long hits() { return hits; }
+    public long misses() { return misses; }
+    public long evictions() { return evictions; }
+
+    private static long sizeOf(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // table slot pointing at key's entry, or -1
+    private int find(int key) {
+        for (int s = hash(key); table[s] != 0; s = (s + 1) & mask) {
+            if (keys[table[s] - 1] == key) return s;
+        }
+        return -1;
+    }
+
+    private void evictOldest() {
+        int oldest = -1;
+        for (int e = 0; e < keys.length; e++) {
+            if (images[e] != null && (oldest < 0 || lastUsed[e] < lastUsed[oldest])) oldest = e;
+        }
+        remove(find(keys[oldest]));
+        evictions++;
+    }
+
+    // free the entry in table slot s and close the probe gap behind it
+    private void remove(int s) {
+        int e = table[s] - 1;
+        bytes -= sizeOf(images[e]);
+        images[e] = null;
+        count--;
+
+        table[s] = 0;
+        for (int next = (s + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[table[next] - 1]);
+            // move back if its home is not in the (s, next] range
+            if (((next - home) & mask) >= ((next - s) & mask)) {
+                table[s] = table[next];
+                table[next] = 0;
+                s = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,466 @@
+package game;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The starfield as parallel primitive arrays (structure of arrays) instead of one
+ * object per star. The bulk update loops walk the arrays front to back, which
+ * keeps them cache friendly and lets the JIT vectorise the parallax pass, so a
+ * dense background of 100k+ stars fits comfortably in a frame.
+ */
+public class StarField {
+    private final int worldW, worldH;
+
+    int count;
+    double[] x, y;              // position
+    double[] prevX, prevY;      // position at the start of the tick (render interpolation)
+    double[] vx, vy;            // drift picked up from black holes
+    double[] speed;             // parallax factor
+    float[] size;               // glow radius, 1 + 2 * speed (closer = bigger/brighter)
+    byte[] palette;             // index into CORE / GLOW
+    int[] orbitTarget;          // index into the black hole list, -1 when free
+    double[] orbitAngle;
+
+    // Gravity only reaches INFLUENCE * R; holes are indexed a little wider so
+    // a few captures (each grows R by 1) don't force a rebuild.
+    static final double INFLUENCE = 5;
+    static final double INFLUENCE_PAD = 32;
+    private final SpatialGrid influence;
+    private double[] indexedRadius = new double[4];
+
+    // Fields at least this big are updated in CHUNK-sized pieces on the common pool
+    static final int PARALLEL_THRESHOLD = 32_768;
+    static final int CHUNK = 8192;
+    private CaptureBuffer[] captures = new CaptureBuffer[0];
+
+    // Spawning draws from rng; per-tick decisions for star i draw from the
+    // stream keyed by (seed, tick, i) so chunking can't change the outcome.
+    private final GameRandom rng;
+    private final long seed;
+    private final GameRandom orbitRng = new GameRandom(0);
+    private long tick;
+
+    // Star colours, indexed by palette
+    static final Color[] CORE = {
+        Color.CYAN, Color.MAGENTA, Color.YELLOW, Color.WHITE, Color.PINK, Color.GREEN
+    };
+    static final Color[] GLOW = {
+        new Color(0, 255, 255, 120),
+        new Color(255, 0, 255, 120),
+        new Color(255, 255, 100, 120),
+        new Color(255, 255, 255, 120),
+        new Color(255, 255, 255, 120),
+        new Color(100, 255, 100, 120)
+    };
+
+    public StarField(int width, int height, int capacity, GameRandom rng) {
+        this.worldW = width;
+        this.worldH = height;
+        this.rng = rng;
+        this.seed = rng.nextLong();
+        x = new double[capacity];
+        y = new double[capacity];
+        prevX = new double[capacity];
+        prevY = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        speed = new double[capacity];
+        size = new float[capacity];
+        palette = new byte[capacity];
+        orbitTarget = new int[capacity];
+        orbitAngle = new double[capacity];
+        influence = new SpatialGrid(-64, -64, width + 128, height + 128, 64);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /** Add a star at a random position with the given parallax factor. */
+    public void add(double starSpeed) {
+        if (count == x.length) grow(Math.max(16, count * 2));
+        int i = count++;
+
+        final int margin = 20;
+        x[i] = (rng.nextDouble() * (worldW + margin * 2)) - margin;
+        y[i] = (rng.nextDouble() * (worldH + margin * 2)) - margin;
+        prevX[i] = x[i];
+        prevY[i] = y[i];
+        vx[i] = 0;
+        vy[i] = 0;
+        speed[i] = starSpeed;
+        size[i] = (float)(1 + starSpeed * 2);
+        orbitTarget[i] = -1;
+        orbitAngle[i] = 0;
+
+        switch (rng.nextInt(9)) {
+            case 0: case 5: palette[i] = 0; break;   // cyan
+            case 1: case 6: palette[i] = 1; break;   // magenta
+            case 2:         palette[i] = 2; break;   // yellow
+            case 3: case 7: case 8: /* fallthrough */ palette[i] = 3; break; // white
+            case 4:         palette[i] = 4; break;   // pink
+            default:        palette[i] = 5; break;   // green
+        }
+    }
+
+    private void grow(int cap) {
+        x = Arrays.copyOf(x, cap);
+        y = Arrays.copyOf(y, cap);
+        prevX = Arrays.copyOf(prevX, cap);
+        prevY = Arrays.copyOf(prevY, cap);
+        vx = Arrays.copyOf(vx, cap);
+        vy = Arrays.copyOf(vy, cap);
+        speed = Arrays.copyOf(speed, cap);
+        size = Arrays.copyOf(size, cap);
+        palette = Arrays.copyOf(palette, cap);
+        orbitTarget = Arrays.copyOf(orbitTarget, cap);
+        orbitAngle = Arrays.copyOf(orbitAngle, cap);
+    }
+
+    /** Remember the current positions as the previous tick's, before stepping. */
+    void savePrevious() {
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+    }
+
+    void resetSafe(int i, List<BlackHole> holes, GameRandom r) {
+        Point p = World.safeRandomPoint(worldW, worldH, holes, r);
+        x[i] = p.x;
+        y[i] = p.y;
+        vx[i] = (r.nextDouble() - 0.5) * speed[i];
+        vy[i] = (r.nextDouble() - 0.5) * speed[i];
+        orbitTarget[i] = -1;
+    }
+
+    /** Parallax pass: every star moves against the player's velocity and aim, then wraps. */
+    public void update(int width, int height, double playerVX, double playerVY, int coneDeg) {
+        if (count < PARALLEL_THRESHOLD) {
+            parallax(0, count, width, height, playerVX, playerVY, coneDeg);
+            return;
+        }
+        IntStream.range(0, chunkCount()).parallel().forEach(c ->
+            parallax(c * CHUNK, Math.min(count, (c + 1) * CHUNK), width, height, playerVX, playerVY, coneDeg));
+    }
+
+    private void parallax(int from, int to, int width, int height, double playerVX, double playerVY, int coneDeg) {
+        // draft: opposite of player aim (aim points arrow tip; stars drift "past" you)
+        double angleRad = Math.toRadians(coneDeg);
+        double dx = Math.cos(angleRad);
+        double dy = Math.sin(angleRad);
+        double draftStrength = 5;
+
+        // Wrap with margin
+        final int margin = 20;
+        final int spanX = width  + margin * 2;
+        final int spanY = height + margin * 2;
+        final double[] x = this.x, y = this.y, vx = this.vx, vy = this.vy, speed = this.speed;
+
+        for (int i = from; i < to; i++) {
+            double s = speed[i];
+            // Parallax: opposite player velocity + "draft" toward aim
+            double px = x[i] - Math.round(playerVX * s * 0.25) - dx * s * draftStrength;
+            double py = y[i] - Math.round(playerVY * s * 0.25) - dy * s * draftStrength;
+
+            if (px < -margin)             { px += spanX; vx[i] = 0;}
+            else if (px > width + margin) { px -= spanX; vx[i] = 0;}
+
+            if (py < -margin)             { py += spanY; vy[i] = 0;}
+            else if (py > height + margin){ py -= spanY; vy[i] = 0;}
+
+            x[i] = px;
+            y[i] = py;
+        }
+    }
+
+    /**
+     * Black hole gravity/orbit pass. Captures spawn a ring and a swirl and grow the hole.
+     * Each free star only looks at the holes whose influence disk (5R) covers
+     * its grid cell; holes further away contribute nothing, so the result is
+     * identical to {@link #updateWithBlackHolesBruteForce}.
+     */
+    public void updateWithBlackHoles(List<BlackHole> blackHoles, Particles particles, long tick) {
+        this.tick = tick;
+        buildInfluence(blackHoles);
+        if (count >= PARALLEL_THRESHOLD) {
+            updateWithBlackHolesParallel(blackHoles, particles);
+            return;
+        }
+
+        final SpatialGrid grid = influence;
+        for (int i = 0, n = count; i < n; i++) {
+            if (orbitTarget[i] >= 0) { orbit(i, blackHoles, orbitRng); continue; }
+
+            boolean captured = false;
+            int cell = grid.cellAt(x[i], y[i]);
+            for (int k = grid.cellStart(cell), end = grid.cellEnd(cell); k < end; k++) {
+                int h = grid.item(k);
+                BlackHole bh = blackHoles.get(h);
+                if (attract(i, bh)) {
+                    capture(i, h, bh);
+                    absorb(bh, particles);
+                    // the hole grew; re-index once it outgrows the padding
+                    if (bh.getRadius() > indexedRadius[h] + INFLUENCE_PAD / INFLUENCE) buildInfluence(blackHoles);
+                    captured = true;
+                    break;
+                }
+            }
+
+            // apply velocity when not orbiting
+            if (!captured) {
+                x[i] += vx[i];
+                y[i] += vy[i];
+            }
+        }
+    }
+
+    /**
+     * Large fields: chunks of CHUNK stars run on the common ForkJoin pool. Holes
+     * are read-only while the chunks run; each chunk records its captures in its
+     * own buffer and the effects / hole growth are applied afterwards in chunk
+     * order, so the outcome does not depend on thread scheduling. Unlike the
+     * sequential pass, a hole's growth from this tick's captures only affects
+     * gravity from the next tick on.
+     */
+    private void updateWithBlackHolesParallel(List<BlackHole> blackHoles, Particles particles) {
+        int chunks = chunkCount();
+        if (captures.length < chunks) {
+            captures = Arrays.copyOf(captures, chunks);
+            for (int c = 0; c < chunks; c++) if (captures[c] == null) captures[c] = new CaptureBuffer();
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(c ->
+            gravityChunk(c * CHUNK, Math.min(count, (c + 1) * CHUNK), blackHoles, captures[c]));
+
+        for (int c = 0; c < chunks; c++) {
+            CaptureBuffer buf = captures[c];
+            for (int k = 0; k < buf.count; k++) absorb(blackHoles.get(buf.holes[k]), particles);
+            buf.count = 0;
+        }
+    }
+
+    private void gravityChunk(int from, int to, List<BlackHole> blackHoles, CaptureBuffer out) {
+        final SpatialGrid grid = influence;
+        for (int i = from; i < to; i++) {
+            if (orbitTarget[i] >= 0) { orbit(i, blackHoles, out.rng); continue; }
+
+            boolean captured = false;
+            int cell = grid.cellAt(x[i], y[i]);
+            for (int k = grid.cellStart(cell), end = grid.cellEnd(cell); k < end; k++) {
+                int h = grid.item(k);
+                BlackHole bh = blackHoles.get(h);
+                if (attract(i, bh)) {
+                    capture(i, h, bh);
+                    out.add(h);
+                    captured = true;
+                    break;
+                }
+            }
+
+            // apply velocity when not orbiting
+            if (!captured) {
+                x[i] += vx[i];
+                y[i] += vy[i];
+            }
+        }
+    }
+
+    private int chunkCount() {
+        return (count + CHUNK - 1) / CHUNK;
+    }
+
+    // Captures recorded by one chunk during the parallel pass
+    private static final class CaptureBuffer {
+        final GameRandom rng = new GameRandom(0);
+        int[] holes = new int[16];
+        int count;
+
+        void add(int h) {
+            if (count == holes.length) holes = Arrays.copyOf(holes, count * 2);
+            holes[count++] = h;
+        }
+    }
+
+    /** Reference version of {@link #updateWithBlackHoles}: every star against every hole. */
+    public void updateWithBlackHolesBruteForce(List<BlackHole> blackHoles, Particles particles, long tick) {
+        this.tick = tick;
+        final int holeCount = blackHoles.size();
+        for (int i = 0, n = count; i < n; i++) {
+            if (orbitTarget[i] >= 0) { orbit(i, blackHoles, orbitRng); continue; }
+
+            boolean captured = false;
+            for (int h = 0; h < holeCount; h++) {
+                BlackHole bh = blackHoles.get(h);
+                if (attract(i, bh)) {
+                    capture(i, h, bh);
+                    absorb(bh, particles);
+                    captured = true;
+                    break;
+                }
+            }
+
+            // apply velocity when not orbiting
+            if (!captured) {
+                x[i] += vx[i];
+                y[i] += vy[i];
+            }
+        }
+    }
+
+    /**
+     * Dry run of both gravity paths for every free star against the current holes,
+     * comparing the resulting velocity and capturing hole bit for bit. Leaves the
+     * field untouched. Returns the number of stars that differ.
+     */
+    public int verifyCulling(List<BlackHole> blackHoles) {
+        buildInfluence(blackHoles);
+        int mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            if (orbitTarget[i] >= 0) continue;
+            double vx0 = vx[i], vy0 = vy[i];
+
+            int bruteHit = -1;
+            for (int h = 0; h < blackHoles.size(); h++) {
+                if (attract(i, blackHoles.get(h))) { bruteHit = h; break; }
+            }
+            double bruteVx = vx[i], bruteVy = vy[i];
+            vx[i] = vx0; vy[i] = vy0;
+
+            int culledHit = -1;
+            int cell = influence.cellAt(x[i], y[i]);
+            for (int k = influence.cellStart(cell); k < influence.cellEnd(cell); k++) {
+                int h = influence.item(k);
+                if (attract(i, blackHoles.get(h))) { culledHit = h; break; }
+            }
+            if (culledHit != bruteHit
+                    || Double.doubleToLongBits(vx[i]) != Double.doubleToLongBits(bruteVx)
+                    || Double.doubleToLongBits(vy[i]) != Double.doubleToLongBits(bruteVy)) {
+                mismatches++;
+            }
+            vx[i] = vx0; vy[i] = vy0;
+        }
+        return mismatches;
+    }
+
+    private void buildInfluence(List<BlackHole> blackHoles) {
+        int n = blackHoles.size();
+        if (indexedRadius.length < n) indexedRadius = new double[Math.max(n, indexedRadius.length * 2)];
+        for (int h = 0; h < n; h++) indexedRadius[h] = blackHoles.get(h).getRadius();
+        influence.build(blackHoles, INFLUENCE, INFLUENCE_PAD);
+    }
+
+    // Orbiting star: ride the rim of its hole, occasionally respawn elsewhere.
+    private void orbit(int i, List<BlackHole> blackHoles, GameRandom random) {
+        BlackHole bh = blackHoles.get(orbitTarget[i]);
+        double r = bh.getRadius();
+        double orbitSpeed = 0.0002 + (r * 0.00005);
+        orbitAngle[i] += orbitSpeed;
+
+        // lock star to rim radius
+        x[i] = bh.getX() + Math.cos(orbitAngle[i]) * r;
+        y[i] = bh.getY() + Math.sin(orbitAngle[i]) * r;
+
+        // small chance to respawn away from hole
+        random.reseed(GameRandom.streamSeed(seed, tick, i));
+        if (random.nextDouble() < 0.002) resetSafe(i, blackHoles, random);
+    }
+
+    // Pull free star i toward the hole; returns true if it is close enough to be captured.
+    private boolean attract(int i, BlackHole bh) {
+        double dxB = bh.getX() - x[i];
+        double dyB = bh.getY() - y[i];
+        double dist = Math.hypot(dxB, dyB);
+
+        // early attraction
+        if (dist < bh.getRadius() * INFLUENCE) {
+            double strength = (bh.getRadius() * 15) / (dist * dist + 1);
+            vx[i] += (dxB / dist) * strength;
+            vy[i] += (dyB / dist) * strength;
+        }
+        return dist <= bh.getRadius() * 1.02;
+    }
+
+    // capture into orbit (star side only; see absorb for the hole side)
+    private void capture(int i, int h, BlackHole bh) {
+        orbitTarget[i] = h;
+
+        // start orbit at current angle
+        double angle = Math.atan2(bh.getY() - y[i], bh.getX() - x[i]);
+        orbitAngle[i] = angle;
+
+        // smoothly snap onto rim
+        double targetR = bh.getRadius();
+        double lerpFactor = 2;
+        x[i] = x[i] + (bh.getX() + Math.cos(angle) * targetR - x[i]) * lerpFactor;
+        y[i] = y[i] + (bh.getY() + Math.sin(angle) * targetR - y[i]) * lerpFactor;
+    }
+
+    private static void absorb(BlackHole bh, Particles particles) {
+        // spawn a ring that stops at BH radius, and a swirl falling in
+        particles.ringBurst(bh.getX(), bh.getY(), (int)Math.round(bh.getRadius()));
+        particles.swirl(bh.getX(), bh.getY(), bh.getRadius());
+
+        // grow & flash
+        bh.absorbStar();
+    }
+
+    // Glow + core sprites for every palette entry and quarter-pixel size, packed
+    // into one atlas so a star is a single sub-image blit instead of two oval fills
+    // with a translucent colour. Built on first use; render thread only.
+    static final int SIZE_BUCKETS = 16;           // sizes 1.0 .. 4.75 in quarter pixels
+    static final int CELL = 12;                   // fits the widest glow (10 px) plus a margin
+    private static BufferedImage atlas;
+
+    static int sizeBucket(double size) {
+        int b = (int)Math.round((size - 1) * 4);
+        return b < 0 ? 0 : (b >= SIZE_BUCKETS ? SIZE_BUCKETS - 1 : b);
+    }
+
+    static BufferedImage atlas() {
+        if (atlas == null) {
+            BufferedImage img = new BufferedImage(SIZE_BUCKETS * CELL, CORE.length * CELL,
+                                                  BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = img.createGraphics();
+            int c = CELL / 2;
+            for (int p = 0; p < CORE.length; p++) {
+                for (int b = 0; b < SIZE_BUCKETS; b++) {
+                    drawOvals(g, b * CELL + c, p * CELL + c, 1 + b / 4.0, p);
+                }
+            }
+            g.dispose();
+            atlas = img;
+        }
+        return atlas;
+    }
+
+    // (rx, ry) is the on-screen position before lensing (see LensingPass)
+    public static void draw(Graphics2D g2, double rx, double ry, double size, int palette) {
+        int sx = sizeBucket(size) * CELL, sy = palette * CELL;
+        int dx = (int)Math.round(rx) - CELL / 2, dy = (int)Math.round(ry) - CELL / 2;
+        g2.drawImage(atlas(), dx, dy, dx + CELL, dy + CELL, sx, sy, sx + CELL, sy + CELL, null);
+    }
+
+    // the original look, used to fill the atlas cells
+    private static void drawOvals(Graphics2D g2, double rx, double ry, double size, int palette) {
+        // glow (bigger, semi-transparent)
+        g2.setColor(GLOW[palette]);
+        g2.fillOval(
+            (int)Math.round(rx - size),
+            (int)Math.round(ry - size),
+            (int)Math.round(size * 2),
+            (int)Math.round(size * 2)
+        );
+
+        // core (smaller, solid)
+        g2.setColor(CORE[palette]);
+        int coreSize = (int)Math.max(1, Math.round(size * 0.6));
+        g2.fillOval(
+            (int)Math.round(rx - coreSize / 2.0),
+            (int)Math.round(ry - coreSize / 2.0),
+            coreSize, coreSize
+        );
+    }
+}
@@ -0,0 +1,205 @@
+package game;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * The layers that do not depend on the player or projectiles, rasterised in
+ * horizontal bands on the common ForkJoin pool, the same way StarField splits
+ * its update into chunks:
+ *
+ * - stars, into an opaque layer whose bands are sub-images sharing one raster,
+ *   then lensed around each hole (see LensingPass), band by band;
+ * - particles (see Particles), into a separate translucent image per band,
+ *   composited over the world after the black holes.
+ *
+ * Each band has its own Graphics2D and jitter generator, so the workers share
+ * nothing they write to. Ring jitter is reseeded per (frame, particle), so a puff
+ * that straddles two bands is drawn the same in both.
+ *
+ * {@link #render} runs the workers and returns once they are done; the draw
+ * methods then composite on the calling thread.
+ */
+public class TiledBackground {
+    static final int BAND = 64;                   // band height in layer pixels
+    // with nothing to run alongside, the bands go one after another on the caller
+    static final boolean PARALLEL = ForkJoinPool.getCommonPoolParallelism() > 1;
+
+    private BufferedImage stars;                  // opaque, the whole layer
+    private int[] starPixels;
+    private int width, height;
+    private Band[] bands = new Band[0];
+    private final LensingPass lensing = new LensingPass();
+    private final long jitterSeed = System.nanoTime();   // cosmetic only
+    private long frame;
+
+    // this frame's inputs, read-only while the workers run
+    private RenderSnapshot snap;
+    private double alpha, scale;
+    private double[] holeX, holeY, holeR;
+    private int holeCount, density, puffs;
+    private Object interpolation;
+
+    private static final class Band {
+        final int y0, y1;                         // layer rows [y0, y1)
+        final Graphics2D starG;                   // onto this band of the star layer
+        final BufferedImage effects;              // TYPE_INT_ARGB_PRE, band-sized
+        final int[] effectPixels;
+        final Graphics2D effectG;
+        final GameRandom jitter = new GameRandom(0);
+        final AffineTransform toBand = new AffineTransform();   // world -> band pixels, reset per frame
+        boolean effectsDrawn;                     // particles touched it this frame
+        boolean effectsDirty;                     // ... or it still holds last frame's
+
+        Band(BufferedImage starLayer, int width, int y0, int y1) {
+            this.y0 = y0;
+            this.y1 = y1;
+            starG = starLayer.getSubimage(0, y0, width, y1 - y0).createGraphics();
+            effects = new BufferedImage(width, y1 - y0, BufferedImage.TYPE_INT_ARGB_PRE);
+            effectPixels = ((DataBufferInt) effects.getRaster().getDataBuffer()).getData();
+            effectG = effects.createGraphics();
+        }
+
+        void dispose() {
+            starG.dispose();
+            effectG.dispose();
+        }
+    }
+
+    /**
+     * Rasterise stars (lensed) and particles for a world drawn at {@code scale}
+     * pixels per unit. holeX / holeY / holeR are the interpolated holes in world
+     * units. Star density, puffs per ring and filtering follow {@code quality}.
+     */
+    public void render(RenderSnapshot s, double alpha, double scale,
+                       double[] holeX, double[] holeY, double[] holeR, QualityGovernor quality) {
+        int w = (int)Math.ceil(World.WIDTH * scale - 1e-9), h = (int)Math.ceil(World.HEIGHT * scale - 1e-9);
+        if (stars == null || w != width || h != height) resize(w, h);
+        this.snap = s;
+        this.alpha = alpha;
+        this.scale = scale;
+        this.holeX = holeX;
+        this.holeY = holeY;
+        this.holeR = holeR;
+        this.holeCount = s.holeCount;
+        this.density = quality.starDensity();
+        this.puffs = quality.puffs();
+        // as for the rest of the world (see Renderer.drawWorld)
+        this.interpolation = quality.smooth() && scale >= 1
+                ? RenderingHints.VALUE_INTERPOLATION_BILINEAR : RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+        frame++;
+
+        StarField.atlas();                        // built lazily; not by the workers
+        Particles.prepare(s, alpha);              // likewise the particle sprites
+        bands(0, bands.length - 1).forEach(b -> rasterise(bands[b]));
+
+        // each hole reads what the previous one left, so one parallel pass per hole
+        for (int i = 0; i < holeCount; i++) {
+            if (!lensing.prepare(starPixels, width, height, holeX[i] * scale, holeY[i] * scale, holeR[i], scale)) continue;
+            int first = lensing.firstRow() / BAND, last = lensing.lastRow() / BAND;
+            bands(first, last).forEach(b ->
+                lensing.warp(starPixels, width, bands[b].y0, bands[b].y1));
+        }
+        snap = null;
+    }
+
+    /** The lensed star layer, opaque, at (x, y). */
+    public void drawStars(Graphics2D g, int x, int y) {
+        g.drawImage(stars, x, y, null);
+    }
+
+    /** The bands particles were drawn into this frame, over whatever is there, at (x, y). */
+    public void drawParticles(Graphics2D g, int x, int y) {
+        for (Band band : bands) {
+            if (band.effectsDrawn) g.drawImage(band.effects, x, y + band.y0, null);
+        }
+    }
+
+    private void resize(int w, int h) {
+        for (Band band : bands) band.dispose();
+        width = w;
+        height = h;
+        stars = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        starPixels = ((DataBufferInt) stars.getRaster().getDataBuffer()).getData();
+        bands = new Band[(h + BAND - 1) / BAND];
+        for (int b = 0; b < bands.length; b++) {
+            bands[b] = new Band(stars, w, b * BAND, Math.min(h, (b + 1) * BAND));
+        }
+    }
+
+    private static IntStream bands(int first, int last) {
+        IntStream range = IntStream.rangeClosed(first, last);
+        return PARALLEL ? range.parallel() : range;
+    }
+
+    private void rasterise(Band band) {
+        Arrays.fill(starPixels, band.y0 * width, band.y1 * width, 0);
+        drawStars(band);
+        drawParticles(band);
+    }
+
+    // Positions and sizes are scaled rather than the graphics, so each star stays a
+    // straight atlas copy; the atlas has a cell per quarter pixel of size.
+    private void drawStars(Band band) {
+        RenderSnapshot s = snap;
+        double top = band.y0 - StarField.CELL, bottom = band.y1 + StarField.CELL;
+        for (int i = 0; i < s.starCount; i++) {
+            if (!QualityGovernor.drawStar(i, density)) continue;
+            double rx = s.starX[i], ry = s.starY[i];
+            double dx = rx - s.starPrevX[i], dy = ry - s.starPrevY[i];
+            if (dx > -Renderer.TELEPORT && dx < Renderer.TELEPORT && dy > -Renderer.TELEPORT && dy < Renderer.TELEPORT) {
+                rx -= dx * (1 - alpha);
+                ry -= dy * (1 - alpha);
+            }
+            double py = ry * scale;
+            if (py < top || py > bottom) continue;
+            StarField.draw(band.starG, rx * scale, py - band.y0, s.starSize[i] * scale, s.starPalette[i]);
+        }
+    }
+
+    // Each particle drawn in every band its slice reaches, interpolated like the
+    // rest of the world; only rings need the band's rows to skip what lies outside.
+    private void drawParticles(Band band) {
+        RenderSnapshot s = snap;
+        if (band.effectsDirty) {
+            Arrays.fill(band.effectPixels, 0);
+            band.effectsDirty = false;
+        }
+        band.effectsDrawn = false;
+        Graphics2D g = band.effectG;
+        double top = band.y0 / scale, bottom = band.y1 / scale;     // in world units
+        for (int i = 0; i < s.partCount; i++) {
+            byte kind = s.partKind[i];
+            double x = s.partPrevX[i] + (s.partX[i] - s.partPrevX[i]) * alpha;
+            double y = s.partPrevY[i] + (s.partY[i] - s.partPrevY[i]) * alpha;
+            double size = s.partPrevSize[i] + (s.partSize[i] - s.partPrevSize[i]) * alpha;
+            double reach = Particles.extent(kind, size);
+            if (Math.max(y, s.partPrevY[i]) + reach < top || Math.min(y, s.partPrevY[i]) - reach >= bottom) continue;
+            if (!band.effectsDrawn) {
+                band.toBand.setToTranslation(0, -band.y0);
+                band.toBand.scale(scale, scale);
+                g.setTransform(band.toBand);
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+                band.effectsDrawn = band.effectsDirty = true;
+            }
+            switch (kind) {
+                case Particles.RING:
+                    band.jitter.reseed(GameRandom.streamSeed(jitterSeed, frame, i));
+                    Particles.drawRing(g, x, y, size, s.partAlpha[i], band.jitter, puffs, top, bottom);
+                    break;
+                case Particles.SPARK:
+                    Particles.drawSpark(g, s.partPrevX[i], s.partPrevY[i], x, y, s.partAlpha[i]);
+                    break;
+                case Particles.MOTE:
+                    Particles.drawMote(g, x, y, size, s.partAlpha[i]);
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package game;
+
+import java.awt.Point;
+import java.util.ArrayList;
+
+/**
+ * The simulation: player, stars, projectiles, black holes and particles, stepped one
+ * fixed tick at a time from an {@link InputState}. Has no Swing dependency so it
+ * can run headless (see {@link HeadlessSim}).
+ */
+public class World {
+    public static final int WIDTH = GamePanel.WIDTH;
+    public static final int HEIGHT = GamePanel.HEIGHT;
+    public static final int TICK_RATE = 60;           // fixed simulation steps per second
+
+    // timings are in ticks so the sim runs the same at any wall-clock speed
+    static final int FIRE_INTERVAL_TICKS = 6;         // 100 ms at 60 Hz (~8 shots/sec)
+    static final int GUN_SWITCH_TICKS = 3;            // 50 ms at 60 Hz
+
+    static final int MAX_PROJECTILES = 2048;          // shots beyond this are dropped
+    static final int MAX_RINGS = 4096;                // past these the oldest of each are cut short
+    static final int MAX_EFFECTS = 4096;              // sparks and motes, apart so they never evict a ring
+
+    // update phases timed by tickStats (see FrameStats)
+    static final int T_PLAYER = 0, T_STARS = 1, T_PROJECTILES = 2, T_COLLISIONS = 3, T_PARTICLES = 4;
+    static final String[] TICK_PHASES = { "player", "stars", "projectiles", "collisions", "particles" };
+    final AllocationStats tickAlloc = new AllocationStats("tick", TICK_PHASES);
+    final FrameStats tickStats = new FrameStats(tickAlloc, TICK_PHASES);
+
+    ProjectilePool projectiles = new ProjectilePool(MAX_PROJECTILES);  // waves
+    StarField stars;
+    ArrayList<BlackHole> blackHoles = new ArrayList<>();
+    Particles particles;                             // rings, sparks, swirls
+    Player player;
+
+    // broadphase for projectile <-> black hole hits, rebuilt each tick
+    final SpatialGrid holeGrid = new SpatialGrid(-64, -64, WIDTH + 128, HEIGHT + 128, 64);
+    private int[] holeCandidates = new int[4];
+
+    // all randomness in the sim comes from here (see GameRandom)
+    final long seed;
+    final GameRandom rng;
+
+    long tick = 0;
+    long lastFireTick = -FIRE_INTERVAL_TICKS;
+    long lastGunSwitchTick = -GUN_SWITCH_TICKS;
+    boolean soundEnabled = true;
+
+    public World(int starCount, long seed) {
+        this.seed = seed;
+        this.rng = new GameRandom(seed);
+        // a stream of its own, so effects never change what the sim draws
+        particles = new Particles(MAX_RINGS, MAX_EFFECTS, GameRandom.streamSeed(seed, -1, 0));
+     // Example: make one in the middle of the screen
+        blackHoles.add(new BlackHole(WIDTH-250, HEIGHT-250, 30));
+        // generate stars
+  
+        player = new Player(WIDTH / 2, HEIGHT / 2, 40);
+        stars = new StarField(WIDTH, HEIGHT, starCount, rng.split());
+        for (int i = 0; i < starCount; i++) {  // number of stars
+            stars.add(rng.nextDouble()+.2);
+            }
+        for (BlackHole bh : blackHoles) {
+            bh.update(WIDTH, HEIGHT);
+        }
+    }
+
+    public void step(InputState in) {
+        tick++;
+        savePrevious();
+        GameEvents.Tick event = new GameEvents.Tick();
+        event.begin();
+        long t = tickStats.begin();
+
+    	int vx = 0, vy = 0, dx = 0, dy = 0;
+    	if (in.up)   { vy -= 2; dy = -2; }
+    	if (in.down) { vy += 2; dy = 2; }
+    	if (in.left) { vx -= 2; dx = -2; }
+    	if (in.right) { vx += 2; dx = 2; }
+
+    	player.x += vx;
+    	player.y += vy;
+    	
+    	if (player.spinAngle > Math.PI * 2) {
+    	    player.spinAngle -= Math.PI * 2; // keep it bounded
+    	}
+    	t = tickStats.lap(T_PLAYER, t);
+    	stars.update(WIDTH, HEIGHT, vx, vy, player.getAngle());
+    	stars.updateWithBlackHoles(blackHoles, particles, tick);
+    	t = tickStats.lap(T_STARS, t);
+    	if (in.aimChanged) player.angle = in.aimAngle;
+    	if (in.selectGun != null) player.setGun(in.selectGun);
+    	if (in.rotateCw) player.angle += 1; // speed to taste
+    	if (in.rotateCcw) player.angle -= 1;
+    	player.updateMovement(in.up, in.down, in.left, in.right);
+        player.update(); // for spin
+        t = tickStats.lap(T_PLAYER, t);
+        moveProjectiles();
+        t = tickStats.lap(T_PROJECTILES, t);
+
+    	// update "roll angle" if moving
+    	if (vx != 0 || vy != 0) {
+    	    player.rollAngle = Math.atan2(vy, vx);
+    	 // increase roll offset based on movement speed
+    	    player.rollOffset += Math.sqrt(vx*vx + vy*vy) * 0.2;
+    	}
+
+        // hold-to-fire / click-to-fire
+        if (in.fire || in.click) tryFire();
+
+        // continuous + / - while held
+        if (in.plus) {
+            player.offsetAmt = Math.min(3.0, player.offsetAmt + 0.01);
+        }
+        if (in.minus) {
+            player.offsetAmt = Math.max(0.1, player.offsetAmt - 0.01);
+        }
+               
+        // inside update()
+        if (in.cycleGun) {
+            if (tick - lastGunSwitchTick > GUN_SWITCH_TICKS) {
+                Player.GunType[] guns = Player.GunType.values();
+                int next = (player.getGun().ordinal() + 1) % guns.length;
+                player.setGun(guns[next]);
+                lastGunSwitchTick = tick;
+            }
+        }
+
+        t = tickStats.lap(T_PLAYER, t);
+
+        // move projectiles
+        moveProjectiles();
+        t = tickStats.lap(T_PROJECTILES, t);
+     // in update()
+     // update black holes (this decays flashAlpha/flashTimer!)
+        for (BlackHole bh : blackHoles) {
+            bh.update(WIDTH, HEIGHT);
+        }
+        resolveCollisions(dx, dy);
+        t = tickStats.lap(T_COLLISIONS, t);
+
+        particles.update();
+        tickStats.lap(T_PARTICLES, t);
+        tickStats.end();
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.tick = tick;
+            event.stars = stars.size();
+            event.projectiles = projectiles.size();
+            event.holes = blackHoles.size();
+            event.particles = particles.size();
+            event.commit();
+        }
+        
+
+       
+    }
+    // Positions at the start of the tick; the renderer interpolates from these
+    private void savePrevious() {
+        player.prevX = player.x;
+        player.prevY = player.y;
+        player.prevAngle = player.angle;
+        player.prevSpin = player.spinAngle;
+        stars.savePrevious();
+        for (int i = 0; i < projectiles.size(); i++) {
+            Projectile p = projectiles.get(i);
+            p.prevX = p.x;
+            p.prevY = p.y;
+        }
+        for (BlackHole bh : blackHoles) bh.savePrevious();
+        // particles keep their own, in Particles.update
+    }
+
+    // --- PROJECTILE ↔ BLACK HOLE COLLISIONS ---
+    // (dx, dy) is the player's movement this tick; TRIANGLE hits knock holes along it
+    void resolveCollisions(int dx, int dy) {
+        GameEvents.Collisions event = new GameEvents.Collisions();
+        event.begin();
+        int tested = projectiles.size();
+        long emittedBefore = particles.emitted();
+        int candidatesSeen = 0, hits = 0, shards = 0, killed = 0;
+
+        // damage only shrinks holes, so this index stays a superset for the whole pass
+        holeGrid.build(blackHoles, 1.0);
+        if (holeCandidates.length < blackHoles.size()) holeCandidates = new int[blackHoles.size()];
+
+        for (int i = projectiles.size() - 1; i >= 0; i--) {
+            Projectile p = projectiles.get(i);
+            if (!p.isAlive()) { projectiles.removeAt(i); continue; }
+
+            // broadphase: only holes sharing a grid cell with the projectile
+            int candidates = holeGrid.query(p.getX(), p.getY(), p.getRadius(), holeCandidates);
+            candidatesSeen += candidates;
+            int hit = -1;
+            for (int c = 0; c < candidates; c++) {
+                int h = holeCandidates[c];
+                if (hit >= 0 && h > hit) continue; // first hole in list order wins
+                BlackHole bh = blackHoles.get(h);
+                double hitDx = p.getX() - bh.getX();
+                double hitDy = p.getY() - bh.getY();
+                double dist2 = hitDx*hitDx + hitDy*hitDy;
+
+                double hitR = bh.getRadius() + p.getRadius();
+                if (dist2 <= hitR * hitR) hit = h;
+            }
+
+            if (hit >= 0) {
+                hits++;
+                BlackHole bh = blackHoles.get(hit);
+                // Hit! Apply effect based on the current gun
+                Player.GunType gun = player.getGun();
+                if (gun == null) gun = player.getGun(); // fallback, just in case
+                switch (gun) {
+                    case TRIANGLE: { // heavy damage + knockback + big rim ring
+                        bh.applyDamage(1.2);                         // tune
+                        bh.applyKnockback(dx, dy, 0.9);              // push away from impact
+                        bh.flash();
+                        particles.ringBurst(bh.getX(), bh.getY(), (int)Math.round(bh.getRadius()));
+                        p.kill();                                     // triangle rounds stop on hit
+                        break;
+                    }
+                    case SQUARE: {   // split on hit (shrapnel) + light damage
+                        bh.applyDamage(0.45);
+                        bh.flash();
+                        particles.ringBurst(bh.getX(), bh.getY(), (int)Math.round(bh.getRadius()));
+                        // spawn 4 children at 45° steps (smaller, faster)
+                        for (int k = 0; k < 4; k++) {
+                            double ang = Math.atan2(p.getDy(), p.getDx()) + Math.toRadians(45 * k);
+                            double spd = Math.hypot(p.getDx(), p.getDy()) * 1.15;
+                            if (projectiles.shard(
+                                p.getX(), p.getY(), Math.cos(ang)*spd, Math.sin(ang)*spd, p.getRadius()*0.6
+                            ) != null) shards++;
+                        }
+                        p.kill();
+                        break;
+                    }
+                    case SINE: {     // pierce + slow debuff + tiny damage
+                        bh.applyDamage(0.2);
+                        bh.applySlow(28, 0.55);                       // ~28 frames at 55% speed
+                        bh.flash();
+                        // SINE bullets **pierce**: allow a limited pierce count
+                        p.incrementPierce();
+                        if (p.getPierceCount() >= 3) p.kill();
+                        break;
+                    }
+                }
+                // sparks off the impact, away from the hole
+                particles.shrapnel(p.getX(), p.getY(), Math.atan2(p.getY() - bh.getY(), p.getX() - bh.getX()));
+                // we handled one BH; no double-count this frame
+                if (!p.isAlive()) killed++;
+            }
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.gun = player.getGun().name();
+            event.projectiles = tested;
+            event.candidates = candidatesSeen;
+            event.hits = hits;
+            event.shards = shards;
+            event.particles = particles.emitted() - emittedBefore;
+            event.killed = killed;
+            event.commit();
+        }
+    }
+
+    // Advance every projectile one step and drop the ones that left the screen.
+    // Swap-remove pulls an unvisited projectile into slot i, so visit i again.
+    private void moveProjectiles() {
+        for (int i = 0; i < projectiles.size(); i++) {
+            Projectile p = projectiles.get(i);
+            p.update();
+            if (p.isOffscreen(WIDTH, HEIGHT)) {
+                projectiles.removeAt(i--);
+            }
+        }
+    }
+
+    public void playGunSound(int screenWidth) {
+        // Map offsetAmt to MIDI velocity (volume)
+        int velocity = (int)(player.offsetAmt * 30); 
+        
+        // timed from the first MIDI call to the last
+        GameEvents.GunSound event = new GameEvents.GunSound();
+        event.begin();
+
+        // Map x position (0 → screenWidth) → pan (0–127)
+        int pan = (int) ((double) player.x / WIDTH * 127);
+        MidiSynth.setPan(pan);
+        
+        // pick the scale array based on gun
+        int[] notes;
+        switch (player.getGun()) {
+            case SINE:     notes = MidiSynth.HIJAZ; break;
+            case SQUARE:   notes = MidiSynth.PHRYGIAN_DOMINANT; break;
+            case TRIANGLE: notes = MidiSynth.ARABIC; break;
+            default:       notes = MidiSynth.PHRYGIAN_DOMINANT; break;
+        }
+
+        // Map player.y (0..HEIGHT) → index in the scale array (0..notes.length-1)
+        int idx = (int)((double) player.y / HEIGHT * notes.length);
+        idx = Math.max(0, Math.min(notes.length - 1, idx)); // clamp
+
+        // Get the actual MIDI pitch
+        int pitch = notes[idx];
+
+        int brightness = (int)(player.offsetAmt * 64); // scale to 0–127
+        
+        
+        MidiSynth.setBrightness(brightness);
+        
+        int instrument = -1;
+        switch (player.currentGun) {
+            case TRIANGLE:
+                instrument = 98;  // triangle-ish
+                MidiSynth.setInstrument(instrument);
+                MidiSynth.playTone(pitch, velocity, 50);
+                break;
+            case SQUARE:
+                instrument = 90;  // Synth Bass
+                MidiSynth.setInstrument(instrument);
+                MidiSynth.playTone(pitch, velocity, 50);
+                break;
+            case SINE:
+                instrument = 4;  // Sine wave
+                MidiSynth.setInstrument(instrument);
+                MidiSynth.playTone(pitch, velocity, 40);
+                break;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.instrument = instrument;
+            event.pitch = pitch;
+            event.velocity = velocity;
+            event.pan = pan;
+            event.brightness = brightness;
+            event.commit();
+        }
+    }
+
+    private void tryFire() {
+        if (tick - lastFireTick >= FIRE_INTERVAL_TICKS) {
+            double rad = Math.toRadians(player.angle);  
+            // push projectile slightly outside the player circle
+            int spawnOffset = 36; // tweak until it looks right
+            int startX = player.x + (int)((player.radius + spawnOffset) * Math.cos(rad));
+            int startY = player.y + (int)((player.radius + spawnOffset) * Math.sin(rad));
+
+            GameEvents.Fire event = new GameEvents.Fire();
+            event.begin();
+            boolean dropped = projectiles.fire(startX, startY, rad, player.currentGun, player.offsetAmt) == null;
+            long soundStart = 0, soundEnd = 0;
+            if (!dropped && soundEnabled) {
+                soundStart = System.nanoTime();
+                playGunSound(WIDTH);
+                soundEnd = System.nanoTime();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.gun = player.currentGun.name();
+                event.offset = player.offsetAmt;
+                event.dropped = dropped;
+                event.projectiles = projectiles.size();
+                event.soundNanos = soundEnd - soundStart;
+                event.commit();
+            }
+            if (dropped) return; // pool full
+            lastFireTick = tick;
+        }
+    }
+    public static Point safeRandomPoint(int width, int height, java.util.List<BlackHole> holes, GameRandom rng) {
+        final int margin = 20;
+        final int maxTries = 60;
+        final double EXCLUDE_FACTOR = 1.4;   // exclude inside 1.4 * radius
+        final double BUFFER = 12.0;          // small pad outside the rim
+
+        for (int i = 0; i < maxTries; i++) {
+            double x = (rng.nextDouble() * (width  + margin * 2)) - margin;
+            double y = (rng.nextDouble() * (height + margin * 2)) - margin;
+
+            boolean ok = true;
+            for (BlackHole bh : holes) {
+                double dx = x - bh.getX();
+                double dy = y - bh.getY();
+                double d  = Math.hypot(dx, dy);
+                double minD = bh.getRadius() * EXCLUDE_FACTOR + BUFFER;
+                if (d < minD) { ok = false; break; }
+            }
+            if (ok) return new Point((int)Math.round(x), (int)Math.round(y));
+        }
+
+        // Fallback: spawn along an edge farthest from the largest BH
+        if (!holes.isEmpty()) {
+            BlackHole biggest = holes.get(0);
+            for (BlackHole bh : holes) if (bh.getRadius() > biggest.getRadius()) biggest = bh;
+
+            double bestX = 0, bestY = 0, bestD = -1;
+            int[][] edges = { {0, height/2}, {width, height/2}, {width/2, 0}, {width/2, height} };
+            for (int[] e : edges) {
+                double d = Math.hypot(e[0] - biggest.getX(), e[1] - biggest.getY());
+                if (d > bestD) { bestD = d; bestX = e[0]; bestY = e[1]; }
+            }
+            return new Point((int)bestX, (int)bestY);
+        }
+
+        // No holes? Just random.
+        int x = (int)(rng.nextDouble() * width);
+        int y = (int)(rng.nextDouble() * height);
+        return new Point(x, y);
+    }
+
+    /**
+     * Hash of the simulation state, for checking that a replay or a new build
+     * reproduces a run exactly.
+     */
+    public long checksum() {
+        long h = GameRandom.mix(seed ^ tick);
+        h = GameRandom.mix(h ^ player.x) + player.y;
+        h = GameRandom.mix(h ^ player.angle) + Double.doubleToLongBits(player.offsetAmt);
+        h = GameRandom.mix(h ^ player.currentGun.ordinal());
+        for (int i = 0; i < stars.size(); i++) {
+            h = GameRandom.mix(h ^ Double.doubleToLongBits(stars.x[i])) + Double.doubleToLongBits(stars.y[i]);
+        }
+        for (int i = 0; i < projectiles.size(); i++) {
+            Projectile p = projectiles.get(i);
+            h = GameRandom.mix(h ^ p.x) + p.y;
+        }
+        for (BlackHole bh : blackHoles) {
+            h = GameRandom.mix(h ^ Double.doubleToLongBits(bh.getX())) + Double.doubleToLongBits(bh.getY());
+            h = GameRandom.mix(h ^ Double.doubleToLongBits(bh.getRadius()));
+        }
+        // rings only: sparks and swirls came later and are purely cosmetic, and have
+        // a pool of their own so they cannot change how many rings are alive
+        return GameRandom.mix(h ^ particles.count(Particles.RING));
+    }
+
+    /** Copy the state the renderer needs into {@code out}. Game thread only. */
+    public void writeSnapshot(RenderSnapshot out) {
+        out.tick = tick;
+
+        out.playerX = player.x;
+        out.playerY = player.y;
+        out.playerPrevX = player.prevX;
+        out.playerPrevY = player.prevY;
+        out.playerPrevAngle = player.prevAngle;
+        out.playerPrevSpin = player.prevSpin;
+        out.playerRadius = player.radius;
+        out.playerAngle = player.angle;
+        out.playerSpin = player.spinAngle;
+        out.playerOffset = player.offsetAmt;
+        out.playerGun = player.currentGun;
+
+        int n = stars.size();
+        out.ensureStars(n);
+        System.arraycopy(stars.x, 0, out.starX, 0, n);
+        System.arraycopy(stars.y, 0, out.starY, 0, n);
+        System.arraycopy(stars.prevX, 0, out.starPrevX, 0, n);
+        System.arraycopy(stars.prevY, 0, out.starPrevY, 0, n);
+        System.arraycopy(stars.size, 0, out.starSize, 0, n);
+        System.arraycopy(stars.palette, 0, out.starPalette, 0, n);
+        out.starCount = n;
+
+        n = projectiles.size();
+        out.ensureProjectiles(n);
+        for (int i = 0; i < n; i++) {
+            Projectile p = projectiles.get(i);
+            out.projX[i] = p.x;
+            out.projY[i] = p.y;
+            out.projPrevX[i] = p.prevX;
+            out.projPrevY[i] = p.prevY;
+            out.projAngle[i] = p.getAngle();
+            out.projOffset[i] = p.getOffsetAmt();
+            out.projGun[i] = (byte) p.getGunType().ordinal();
+        }
+        out.projCount = n;
+
+        n = blackHoles.size();
+        out.ensureHoles(n);
+        for (int i = 0; i < n; i++) {
+            BlackHole bh = blackHoles.get(i);
+            out.holeX[i] = bh.getX();
+            out.holeY[i] = bh.getY();
+            out.holeR[i] = bh.getRadius();
+            out.holePrevX[i] = bh.getPrevX();
+            out.holePrevY[i] = bh.getPrevY();
+            out.holePrevR[i] = bh.getPrevRadius();
+            out.holeFlashAlpha[i] = bh.getFlashAlpha();
+            out.holeFlashTimer[i] = bh.getFlashTimer();
+            out.holeGlowAlpha[i] = bh.getAmbientGlowAlpha();
+        }
+        out.holeCount = n;
+
+        // rings, then sparks and motes, each oldest first so newer effects draw on top
+        n = particles.size();
+        out.ensureParticles(n);
+        for (int k = 0; k < n; k++) {
+            int i = particles.slot(k);
+            out.partKind[k] = particles.kind[i];
+            out.partX[k] = particles.x[i];
+            out.partY[k] = particles.y[i];
+            out.partPrevX[k] = particles.prevX[i];
+            out.partPrevY[k] = particles.prevY[i];
+            out.partSize[k] = particles.size[i];
+            out.partPrevSize[k] = particles.prevSize[i];
+            out.partAlpha[k] = particles.alpha[i];
+        }
+        out.partCount = n;
+
+        tickStats.copySummary(out.tickTimes);
+        tickAlloc.copySummary(out.tickAlloc);
+    }
+}